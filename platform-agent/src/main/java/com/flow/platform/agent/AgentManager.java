@@ -16,19 +16,23 @@
 
 package com.flow.platform.agent;
 
+import com.flow.platform.domain.AgentResume;
 import com.flow.platform.domain.Cmd;
 import com.flow.platform.domain.Jsonable;
 import com.flow.platform.util.Logger;
 import com.flow.platform.util.zk.ZKClient;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
 import org.apache.curator.framework.recipes.cache.TreeCacheEvent.Type;
 import org.apache.curator.framework.recipes.cache.TreeCacheListener;
 import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
 
 /**
  * @author gy@fir.im
@@ -55,6 +59,12 @@ public class AgentManager implements Runnable, TreeCacheListener, AutoCloseable
 
     private List<Cmd> cmdHistory = new LinkedList<>();
 
+    // last session id from received cmd, write to node for session resume
+    private volatile String sessionId;
+
+    // zookeeper connection lost or suspended, node removed after it should be registered again
+    private volatile boolean isDisconnected = false;
+
     public AgentManager(String zkHost, int zkTimeout, String zone, String name) throws IOException {
         this.zkHost = zkHost;
         this.zkTimeout = zkTimeout;
@@ -90,9 +100,20 @@ public class AgentManager implements Runnable, TreeCacheListener, AutoCloseable
     @Override
     public void run() {
         // init zookeeper
-        zkClient.start();
+        if (!zkClient.start()) {
+            // zookeeper url may from outdated cached settings, load from server at next start if failed repeatedly
+            LOGGER.warn("Unable to connect to zookeeper: " + zkHost);
+            if (Config.onZookeeperConnectFailure()) {
+                LOGGER.warn("Cached agent settings been deleted");
+            }
+            Runtime.getRuntime().exit(1);
+            return;
+        }
+
+        Config.onZookeeperConnected();
 
         registerZkNodeAndWatch();
+        watchZoneSettings();
 
         synchronized (STATUS_LOCKER) {
             try {
@@ -114,12 +135,20 @@ public class AgentManager implements Runnable, TreeCacheListener, AutoCloseable
 
         if (event.getType() == Type.CONNECTION_RECONNECTED) {
             LOGGER.traceMarker("ZK-Event", "========= Reconnect =========");
+            isDisconnected = false;
             registerZkNodeAndWatch();
             return;
         }
 
         if (event.getType() == Type.CONNECTION_LOST) {
             LOGGER.traceMarker("ZK-Event", "========= Lost =========");
+            isDisconnected = true;
+            return;
+        }
+
+        if (event.getType() == Type.CONNECTION_SUSPENDED) {
+            LOGGER.traceMarker("ZK-Event", "========= Suspended =========");
+            isDisconnected = true;
             return;
         }
 
@@ -141,6 +170,19 @@ public class AgentManager implements Runnable, TreeCacheListener, AutoCloseable
 
         if (event.getType() == Type.NODE_REMOVED) {
             LOGGER.traceMarker("ZK-Event", "========= Node Removed: %s =========", eventData.getPath());
+
+            // ephemeral node removed by zookeeper session expired, register again to resume
+            if (isDisconnected) {
+                isDisconnected = false;
+                registerZkNodeAndWatch();
+                return;
+            }
+
+            // removed event of expired node after node registered again on reconnected
+            if (zkClient.exist(nodePath)) {
+                return;
+            }
+
             close();
             return;
         }
@@ -182,6 +224,15 @@ public class AgentManager implements Runnable, TreeCacheListener, AutoCloseable
                 return;
             }
 
+            // ignore resume data written by agent itself
+            if (cmd.getType() == null) {
+                return;
+            }
+
+            if (cmd.getSessionId() != null) {
+                sessionId = cmd.getSessionId();
+            }
+
             cmdHistory.add(cmd);
             LOGGER.trace("Received command: " + cmd.toString());
             CmdManager.getInstance().execute(cmd);
@@ -193,17 +244,47 @@ public class AgentManager implements Runnable, TreeCacheListener, AutoCloseable
     }
 
     /**
-     * Register agent node to server
+     * Apply agent settings from zone node data and watch the changes of it,
+     * settings pushed from control center instead of polling
+     */
+    private void watchZoneSettings() {
+        onSettingsChanged();
+        zkClient.watchNode(zonePath, this::onSettingsChanged);
+    }
+
+    private void onSettingsChanged() {
+        try {
+            Stat stat = new Stat();
+            byte[] raw = zkClient.getData(zonePath, stat);
+
+            if (Config.updateAgentConfig(raw, stat.getVersion())) {
+                LOGGER.trace("Agent settings updated to version %s", stat.getVersion());
+            }
+        } catch (Throwable e) {
+            LOGGER.warn("Unable to update agent settings from zone: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Register agent node to server with resume data of last session and running cmd
      * Monitor data changed event
      *
      * @return path of zookeeper or null if failure
      */
     private String registerZkNodeAndWatch() {
-        String path = zkClient.createEphemeral(nodePath, null);
+        String path = zkClient.createEphemeral(nodePath, resume().toBytes());
         zkClient.watchTree(path, this);
         return path;
     }
 
+    private AgentResume resume() {
+        Set<String> running = new HashSet<>();
+        for (Cmd cmd : CmdManager.getInstance().getRunning().keySet()) {
+            running.add(cmd.getId());
+        }
+        return new AgentResume(sessionId, running);
+    }
+
     private void removeZkNode() {
         zkClient.deleteWithoutGuaranteed(nodePath, false);
     }
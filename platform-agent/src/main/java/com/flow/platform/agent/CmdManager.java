@@ -28,6 +28,7 @@ import com.flow.platform.domain.Jsonable;
 import com.flow.platform.util.Logger;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -81,6 +82,10 @@ public class CmdManager {
     // handle extra listeners
     private List<ProcListener> extraProcEventListeners = new ArrayList<>(5);
 
+    // persistent working dir per git repo
+    private final WorkspaceCache workspaceCache =
+        new WorkspaceCache(Config.workspaceDir(), Config.workspaceSize() * 1024 * 1024);
+
     private CmdManager() {
     }
 
@@ -113,6 +118,10 @@ public class CmdManager {
         return extraProcEventListeners;
     }
 
+    public WorkspaceCache getWorkspaceCache() {
+        return workspaceCache;
+    }
+
     /**
      * Stop all executing processes and exit agent
      */
@@ -173,12 +182,20 @@ public class CmdManager {
                     ProcEventHandler procEventHandler =
                         new ProcEventHandler(getCmd(), extraProcEventListeners, running, finished);
 
+                    // use cached workspace of git repo if working dir not defined
+                    String workingDir = cmd.getWorkingDir();
+                    Path cachedDir = null;
+                    if (workingDir == null) {
+                        cachedDir = workspaceCache.acquire(cmd.getInputs());
+                        workingDir = cachedDir == null ? null : cachedDir.toString();
+                    }
+
                     try {
                         CmdExecutor executor = new CmdExecutor(
                             procEventHandler,
                             logListener,
                             cmd.getInputs(),
-                            cmd.getWorkingDir(),
+                            workingDir,
                             cmd.getOutputEnvFilter(),
                             cmd.getTimeout(),
                             Lists.newArrayList(getCmd().getCmd()));
@@ -189,6 +206,10 @@ public class CmdManager {
                         CmdResult result = new CmdResult();
                         result.getExceptions().add(e);
                         procEventHandler.onException(result);
+                    } finally {
+                        if (cachedDir != null) {
+                            workspaceCache.release(cachedDir);
+                        }
                     }
                 }
             });
@@ -23,10 +23,15 @@ import com.flow.platform.util.StringUtil;
 import com.flow.platform.util.http.HttpClient;
 import com.flow.platform.util.http.HttpResponse;
 import com.flow.platform.util.zk.ZKClient;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
 import org.apache.curator.utils.ZKPaths;
 
 /**
@@ -47,15 +52,33 @@ public class Config {
     public final static String PROP_ENABLE_REALTIME_AGENT_LOG = "flow.agent.log.realtime";
     public final static String PROP_DEL_AGENT_LOG = "flow.agent.log.delete";
     public final static String PROP_LOG_DIR = "flow.agent.log.dir";
+    public final static String PROP_LOG_CHUNK_PERIOD = "flow.agent.log.chunk.period";
+
+    public final static String PROP_WORKSPACE_DIR = "flow.agent.workspace.dir";
+    public final static String PROP_WORKSPACE_SIZE = "flow.agent.workspace.size";
 
     public final static String PROP_ZK_TIMEOUT = "flow.agent.zk.timeout";
     public final static String PROP_SUDO_PASSWORD = "flow.agent.sudo.pwd";
+    public final static String PROP_SETTINGS_DIR = "flow.agent.settings.dir";
+
+    private final static int SETTINGS_FETCH_RETRY = 5;
+    private final static long SETTINGS_FETCH_BASE_DELAY = 1000; // 1 seconds
+    private final static long SETTINGS_FETCH_MAX_DELAY = 30 * 1000; // 30 seconds
+
+    // num of continuous zookeeper connect failure to delete cached settings
+    private final static int ZK_CONNECT_FAILURE_LIMIT = 3;
 
     public static AgentSettings AGENT_SETTINGS;
     public static String ZK_URL;
     public static String ZONE;
     public static String NAME;
 
+    // version of zone node data which applied to agent settings
+    private static int SETTINGS_VERSION = -1;
+
+    // local file to cache agent settings
+    private static Path SETTINGS_FILE;
+
     private static Properties properties;
 
     public static boolean isDebug() {
@@ -106,6 +129,14 @@ public class Config {
         return Boolean.parseBoolean(boolStr);
     }
 
+    /**
+     * Period in seconds to upload zipped cmd log segment while cmd running, disabled if 0
+     */
+    public static long logChunkPeriod() {
+        String longStr = System.getProperty(PROP_LOG_CHUNK_PERIOD, "10");
+        return Long.parseLong(longStr);
+    }
+
     /**
      * Is report cmd status to cc
      */
@@ -133,6 +164,28 @@ public class Config {
         }
     }
 
+    /**
+     * Root dir of cached workspace per git repo
+     */
+    public static Path workspaceDir() {
+        Path defaultPath = Paths.get(System.getProperty("user.home"), ".flow-agent", "workspace");
+        String pathStr = System.getProperty(PROP_WORKSPACE_DIR, defaultPath.toString());
+
+        try {
+            return Paths.get(pathStr);
+        } catch (Throwable e) {
+            return defaultPath;
+        }
+    }
+
+    /**
+     * Disk space budget of cached workspace in MB, workspace cache disabled by default
+     */
+    public static long workspaceSize() {
+        String longStr = System.getProperty(PROP_WORKSPACE_SIZE, "0");
+        return Long.parseLong(longStr);
+    }
+
     public static int concurrentThreadNum() {
         String intStr = System.getProperty(PROP_CONCURRENT_THREAD, "2");
         return Integer.parseInt(intStr);
@@ -180,16 +233,201 @@ public class Config {
         }
     }
 
+    /**
+     * Load agent settings from local cached file of token, or from server if not cached
+     */
     public static AgentSettings loadAgentConfig(String baseUrl, String token) {
+        SETTINGS_FILE = settingsFile(token);
+
+        AgentSettings cached = loadCachedAgentConfig();
+        if (cached != null) {
+            LOGGER.trace("Agent settings loaded from: %s", SETTINGS_FILE);
+            return cached;
+        }
+
+        AgentSettings settings = fetchAgentConfig(baseUrl, token);
+        saveCachedAgentConfig(settings);
+        return settings;
+    }
+
+    /**
+     * Update agent settings from zone node data, the agent path is kept since zone data not include it
+     *
+     * @param raw zone node data
+     * @param version zone node data version
+     * @return true if settings updated
+     */
+    public static synchronized boolean updateAgentConfig(byte[] raw, int version) {
+        if (version <= SETTINGS_VERSION || raw == null || raw.length == 0) {
+            return false;
+        }
+
+        AgentSettings settings = Jsonable.parse(raw, AgentSettings.class);
+        if (settings == null) {
+            return false;
+        }
+
+        if (AGENT_SETTINGS != null) {
+            settings.setAgentPath(AGENT_SETTINGS.getAgentPath());
+
+            if (settings.getZookeeperUrl() == null) {
+                settings.setZookeeperUrl(AGENT_SETTINGS.getZookeeperUrl());
+            }
+        }
+
+        AGENT_SETTINGS = settings;
+        SETTINGS_VERSION = version;
+        saveCachedAgentConfig(settings);
+        return true;
+    }
+
+    /**
+     * Delete cached settings, ex: zookeeper url in cached settings cannot be connected
+     */
+    public static void deleteCachedAgentConfig() {
+        if (SETTINGS_FILE == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(SETTINGS_FILE);
+            Files.deleteIfExists(failureFile());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete cached agent settings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record zookeeper connect failure, the cached settings will be deleted if continuous failures
+     * over limit, so the zookeeper url will be loaded from server at next start
+     *
+     * @return true if cached settings deleted
+     */
+    public static synchronized boolean onZookeeperConnectFailure() {
+        if (SETTINGS_FILE == null || !Files.exists(SETTINGS_FILE)) {
+            return false;
+        }
+
+        Path failureFile = failureFile();
+        int numOfFailure = 1;
+
+        try {
+            if (Files.exists(failureFile)) {
+                String content = new String(Files.readAllBytes(failureFile), Charsets.UTF_8).trim();
+                numOfFailure += Integer.parseInt(content);
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Unable to read zookeeper connect failure: " + e.getMessage());
+        }
+
+        if (numOfFailure >= ZK_CONNECT_FAILURE_LIMIT) {
+            deleteCachedAgentConfig();
+            return true;
+        }
+
+        try {
+            Files.write(failureFile, Integer.toString(numOfFailure).getBytes(Charsets.UTF_8));
+        } catch (IOException e) {
+            LOGGER.warn("Unable to save zookeeper connect failure: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Reset zookeeper connect failure of cached settings
+     */
+    public static synchronized void onZookeeperConnected() {
+        if (SETTINGS_FILE == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(failureFile());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete zookeeper connect failure: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reset loaded agent settings and version, the settings will be applied from any version of zone data
+     */
+    public static synchronized void resetAgentConfig() {
+        AGENT_SETTINGS = null;
+        SETTINGS_VERSION = -1;
+        SETTINGS_FILE = null;
+    }
+
+    /**
+     * Fetch agent settings from server, retry with exponential backoff and random jitter
+     * to avoid all agents retry at the same time
+     */
+    private static AgentSettings fetchAgentConfig(String baseUrl, String token) {
         final String url = baseUrl + "/agents/settings?token=" + token;
 
-        HttpResponse<String> response = HttpClient.build(url).get().retry(5).bodyAsString();
+        HttpResponse<String> response = null;
+        for (int i = 0; i <= SETTINGS_FETCH_RETRY; i++) {
+            if (i > 0) {
+                long delay = Math.min(SETTINGS_FETCH_MAX_DELAY, SETTINGS_FETCH_BASE_DELAY << (i - 1));
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
 
-        if (!response.hasSuccess()) {
-            String err = "Unable to load agent setting with http status " + response.getStatusCode();
-            throw new IllegalStateException(err);
+            response = HttpClient.build(url).get().bodyAsString();
+            if (response.hasSuccess()) {
+                return Jsonable.parse(response.getBody(), AgentSettings.class);
+            }
         }
 
-        return Jsonable.parse(response.getBody(), AgentSettings.class);
+        int status = response == null ? -1 : response.getStatusCode();
+        String err = "Unable to load agent setting with http status " + status;
+        throw new IllegalStateException(err);
+    }
+
+    private static AgentSettings loadCachedAgentConfig() {
+        if (!Files.exists(SETTINGS_FILE)) {
+            return null;
+        }
+
+        try {
+            AgentSettings settings = Jsonable.parse(Files.readAllBytes(SETTINGS_FILE), AgentSettings.class);
+            if (settings == null || settings.getAgentPath() == null || settings.getZookeeperUrl() == null) {
+                return null;
+            }
+            return settings;
+        } catch (Throwable e) {
+            LOGGER.warn("Unable to load cached agent settings: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void saveCachedAgentConfig(AgentSettings settings) {
+        if (SETTINGS_FILE == null) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(SETTINGS_FILE.getParent());
+            Files.write(SETTINGS_FILE, settings.toBytes());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to save agent settings: " + e.getMessage());
+        }
+    }
+
+    private static Path failureFile() {
+        return Paths.get(SETTINGS_FILE.toString() + ".failure");
+    }
+
+    /**
+     * Cached settings file by hash of token, ex: ~/.flow-agent/settings-1a2b3c4d.json
+     */
+    private static Path settingsFile(String token) {
+        Path defaultDir = Paths.get(System.getProperty("user.home"), ".flow-agent");
+        String dirStr = System.getProperty(PROP_SETTINGS_DIR, defaultDir.toString());
+        String hash = Hashing.sha1().hashString(token, Charsets.UTF_8).toString().substring(0, 8);
+        return Paths.get(dirStr, "settings-" + hash + ".json");
     }
 }
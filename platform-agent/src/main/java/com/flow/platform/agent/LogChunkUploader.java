@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.agent;
+
+import com.flow.platform.util.Logger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Upload zipped cmd log in segments while cmd running, the zip file is append only
+ * so the offset received by server is the position to continue
+ *
+ * @author yang
+ */
+public class LogChunkUploader {
+
+    private final static Logger LOGGER = new Logger(LogChunkUploader.class);
+
+    private final static int MAX_CHUNK_SIZE = 4 * 1024 * 1024; // 4 MB
+
+    private final static int MAX_NO_PROGRESS = 3;
+
+    private final String cmdId;
+
+    private final Path path;
+
+    private final String fileName;
+
+    private final long periodInMillis;
+
+    // only one segment uploading at the same time
+    private final Semaphore uploading = new Semaphore(1);
+
+    // size of log received by server
+    private volatile long uploaded = 0;
+
+    private volatile boolean isFailed = false;
+
+    private volatile long lastUploadAt = System.currentTimeMillis();
+
+    public LogChunkUploader(String cmdId, Path path, String fileName, long periodInMillis) {
+        this.cmdId = cmdId;
+        this.path = path;
+        this.fileName = fileName;
+        this.periodInMillis = periodInMillis;
+    }
+
+    public long getUploaded() {
+        return uploaded;
+    }
+
+    public boolean isFailed() {
+        return isFailed;
+    }
+
+    /**
+     * Upload new segment in async if period reached and no segment uploading
+     */
+    public void tick() {
+        long now = System.currentTimeMillis();
+        if (isFailed || now - lastUploadAt < periodInMillis) {
+            return;
+        }
+
+        if (!uploading.tryAcquire()) {
+            return;
+        }
+
+        lastUploadAt = now;
+        final long offset = uploaded;
+        final int length = (int) Math.min(MAX_CHUNK_SIZE, sizeOfLog() - offset);
+
+        if (length <= 0) {
+            uploading.release();
+            return;
+        }
+
+        ReportManager.getInstance().cmdLogUploadChunk(cmdId, path, fileName, offset, length, received -> {
+            try {
+                onUploaded(offset, received);
+            } finally {
+                uploading.release();
+            }
+        });
+    }
+
+    /**
+     * Upload rest of closed zip file in sync
+     *
+     * @return false if log cannot be uploaded by segments
+     */
+    public boolean finish() {
+        uploading.acquireUninterruptibly();
+
+        try {
+            final long size = sizeOfLog();
+            int numOfNoProgress = 0;
+
+            while (!isFailed && uploaded < size) {
+                final long offset = uploaded;
+                final int length = (int) Math.min(MAX_CHUNK_SIZE, size - offset);
+                final boolean isLast = offset + length == size;
+
+                long received = ReportManager.getInstance()
+                    .cmdLogUploadChunkSync(cmdId, path, fileName, offset, length, isLast);
+
+                if (onUploaded(offset, received) <= offset && ++numOfNoProgress >= MAX_NO_PROGRESS) {
+                    isFailed = true;
+                }
+            }
+
+            if (uploaded != size) {
+                isFailed = true;
+            }
+
+            if (!isFailed) {
+                LOGGER.trace("Zipped cmd log uploaded by segments %s", path);
+            }
+            return !isFailed;
+        } finally {
+            uploading.release();
+        }
+    }
+
+    private long onUploaded(long offset, long received) {
+        if (received < 0) {
+            LOGGER.warn("Fail to upload cmd log segment from %s of %s", offset, cmdId);
+            isFailed = true;
+            return received;
+        }
+
+        // server may ask to continue from other position, ex: segment missing
+        uploaded = received;
+        return received;
+    }
+
+    private long sizeOfLog() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return uploaded;
+        }
+    }
+}
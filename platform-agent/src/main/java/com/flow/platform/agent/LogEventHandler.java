@@ -23,9 +23,15 @@ import com.flow.platform.domain.Cmd;
 import com.flow.platform.util.CommandUtil.Unix;
 import com.flow.platform.util.Logger;
 import com.google.common.base.Strings;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -54,11 +60,17 @@ public class LogEventHandler implements LogListener {
 
     private final static Path DEFAULT_LOG_PATH = Config.logDir();
 
+    private final static int BUFFER_SIZE = 64 * 1024;
+
     private final Cmd cmd;
 
     private Path stdoutLogPath;
-    private FileOutputStream stdoutLogStream;
+    private OutputStream stdoutLogStream;
     private ZipOutputStream stdoutLogZipStream;
+    private Writer stdoutLogWriter;
+
+    // upload zipped log by segments while cmd running, null if disabled
+    private LogChunkUploader chunkUploader;
 
     private Session wsSession;
 
@@ -74,6 +86,11 @@ public class LogEventHandler implements LogListener {
 
         AgentSettings config = Config.agentSettings();
 
+        if (stdoutLogPath != null && config != null && Config.isUploadLog() && Config.logChunkPeriod() > 0) {
+            String fileName = getLogFileName(cmd, Log.Type.STDOUT, false);
+            chunkUploader = new LogChunkUploader(cmd.getId(), stdoutLogPath, fileName, Config.logChunkPeriod() * 1000);
+        }
+
         if (config == null || !Config.enableRealtimeLog() || Strings.isNullOrEmpty(config.getWebSocketUrl())) {
             return;
         }
@@ -94,7 +111,11 @@ public class LogEventHandler implements LogListener {
         sendRealTimeLog(log);
 
         // write stdout & stderr
-        writeZipStream(stdoutLogZipStream, log.getContent());
+        writeZipStream(stdoutLogWriter, log.getContent());
+
+        if (chunkUploader != null) {
+            chunkUploader.tick();
+        }
     }
 
     private void sendRealTimeLog(Log log) {
@@ -116,7 +137,7 @@ public class LogEventHandler implements LogListener {
         // close socket io
         closeWebSocket();
 
-        if (closeZipAndFileStream(stdoutLogZipStream, stdoutLogStream)) {
+        if (closeZipAndFileStream(stdoutLogWriter, stdoutLogZipStream, stdoutLogStream)) {
             renameAndUpload(stdoutLogPath, Log.Type.STDOUT);
         }
     }
@@ -151,13 +172,19 @@ public class LogEventHandler implements LogListener {
         // rename xxx.out.tmp to xxx.out.zip and renameAndUpload to server
         if (Files.exists(logPath)) {
             try {
+                // upload rest segments, fallback to upload full log if failure
+                boolean isUploaded = chunkUploader != null && chunkUploader.finish();
+
                 Path target = Paths
                     .get(DEFAULT_LOG_PATH.toString(), getLogFileName(cmd, logType, false));
                 Files.move(logPath, target);
 
+                if (!isUploaded) {
+                    isUploaded = ReportManager.getInstance().cmdLogUploadSync(cmd.getId(), target);
+                }
+
                 // delete if uploaded
-                ReportManager reportManager = ReportManager.getInstance();
-                if (reportManager.cmdLogUploadSync(cmd.getId(), target) && Config.isDeleteLog()) {
+                if (isUploaded && Config.isDeleteLog()) {
                     Files.deleteIfExists(target);
                 }
             } catch (IOException warn) {
@@ -166,9 +193,12 @@ public class LogEventHandler implements LogListener {
         }
     }
 
-    private boolean closeZipAndFileStream(final ZipOutputStream zipStream, final FileOutputStream fileStream) {
+    private boolean closeZipAndFileStream(final Writer writer,
+                                          final ZipOutputStream zipStream,
+                                          final OutputStream fileStream) {
         try {
             if (zipStream != null) {
+                writer.flush();
                 zipStream.flush();
                 zipStream.closeEntry();
                 zipStream.close();
@@ -198,15 +228,15 @@ public class LogEventHandler implements LogListener {
         }
     }
 
-    private void writeZipStream(final ZipOutputStream stream, final String log) {
-        if (stream == null) {
+    private void writeZipStream(final Writer writer, final String log) {
+        if (writer == null) {
             return;
         }
 
-        // write to zip output stream
+        // write to zip output stream through buffered writer
         try {
-            stream.write(log.getBytes());
-            stream.write(Unix.LINE_SEPARATOR.getBytes());
+            writer.write(log);
+            writer.write(Unix.LINE_SEPARATOR);
         } catch (IOException e) {
             LOGGER.warn("Log cannot write : " + log);
         }
@@ -227,10 +257,11 @@ public class LogEventHandler implements LogListener {
         stdoutLogPath = Files.createFile(stdoutPath);
 
         // init zip stream for stdout log
-        stdoutLogStream = new FileOutputStream(stdoutLogPath.toFile());
+        stdoutLogStream = new BufferedOutputStream(new FileOutputStream(stdoutLogPath.toFile()), BUFFER_SIZE);
         stdoutLogZipStream = new ZipOutputStream(stdoutLogStream);
         ZipEntry outEntry = new ZipEntry(cmd.getId() + ".out");
         stdoutLogZipStream.putNextEntry(outEntry);
+        stdoutLogWriter = new BufferedWriter(new OutputStreamWriter(stdoutLogZipStream, StandardCharsets.UTF_8));
     }
 
     private String getLogFileName(Cmd cmd, Log.Type logType, boolean isTemp) {
@@ -23,13 +23,21 @@ import com.flow.platform.util.ExceptionUtil;
 import com.flow.platform.util.Logger;
 import com.flow.platform.util.http.HttpClient;
 import com.flow.platform.util.http.HttpResponse;
+import com.flow.platform.util.http.HttpURL;
 import com.google.common.base.Charsets;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.ByteArrayBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
 
@@ -124,4 +132,78 @@ public class ReportManager {
         LOGGER.trace("Zipped cmd log uploaded %s", path);
         return true;
     }
+
+    /**
+     * Upload segment of zipped cmd log in async, callback with size of log received by server
+     */
+    public void cmdLogUploadChunk(final String cmdId,
+                                  final Path path,
+                                  final String fileName,
+                                  final long offset,
+                                  final int length,
+                                  final LongConsumer callback) {
+        executor.execute(() -> {
+            callback.accept(cmdLogUploadChunkSync(cmdId, path, fileName, offset, length, false));
+        });
+    }
+
+    /**
+     * Upload segment of zipped cmd log from offset, the zip file is append only while writing
+     * so segments can be appended on server side in order
+     *
+     * @param fileName name of zipped log file on server
+     * @param offset start position of segment in zipped log file
+     * @param length length of segment
+     * @param isLast is the last segment of closed zip file
+     * @return size of log received by server, or -1 if failure
+     */
+    public long cmdLogUploadChunkSync(final String cmdId,
+                                      final Path path,
+                                      final String fileName,
+                                      final long offset,
+                                      final int length,
+                                      final boolean isLast) {
+        if (!Config.isUploadLog()) {
+            return offset + length;
+        }
+
+        byte[] bytes = new byte[length];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of log file: " + path);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Fail to read cmd log segment from %s: %s", path, e.getMessage());
+            return -1;
+        }
+
+        HttpEntity entity = MultipartEntityBuilder.create()
+            .addPart("file", new ByteArrayBody(bytes, ContentType.APPLICATION_OCTET_STREAM, fileName))
+            .addPart("cmdId", new StringBody(cmdId, ContentType.create("text/plain", Charsets.UTF_8)))
+            .addPart("offset", new StringBody(Long.toString(offset), ContentType.TEXT_PLAIN))
+            .addPart("isLast", new StringBody(Boolean.toString(isLast), ContentType.TEXT_PLAIN))
+            .setContentType(ContentType.MULTIPART_FORM_DATA)
+            .build();
+
+        String url = HttpURL.build(Config.agentSettings().getCmdLogUrl()).append("chunk").toString();
+        HttpResponse<String> response = HttpClient.build(url)
+            .post(entity)
+            .retry(5)
+            .bodyAsString();
+
+        if (!response.hasSuccess()) {
+            LOGGER.warn("Fail to upload cmd log segment to : %s ", url);
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(response.getBody().trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            LOGGER.warn("Illegal received size of cmd log segment: %s", response.getBody());
+            return -1;
+        }
+    }
 }
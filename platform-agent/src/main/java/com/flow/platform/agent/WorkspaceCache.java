@@ -0,0 +1,296 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.agent;
+
+import com.flow.platform.util.Logger;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Persistent working dir per flow and git repo for cmd without working dir, so the checkout of previous
+ * job is reused by the next job of same flow. The least recently used dirs are deleted if disk usage
+ * over the budget
+ *
+ * The disk usage is updated lazily for dirs used since last scan, and the scan runs at most once per
+ * scan period after cmd finished. The evicted dirs are moved to trash and deleted outside the lock
+ *
+ * @author yang
+ */
+public class WorkspaceCache {
+
+    private final static Logger LOGGER = new Logger(WorkspaceCache.class);
+
+    /**
+     * Input env of git url from flow
+     */
+    public final static String GIT_URL_ENV = "FLOW_GIT_URL";
+
+    /**
+     * Input env of flow name, flows with the same git url have different dir
+     */
+    public final static String FLOW_NAME_ENV = "FLOW_NAME";
+
+    public final static long DEFAULT_SCAN_PERIOD = 60 * 1000; // 1 min
+
+    private final static String TRASH_PREFIX = ".trash-";
+
+    private final Path root;
+
+    private final long budget;
+
+    private final long scanPeriod;
+
+    // disk usage of cached dir in order of least recently used
+    private final Map<Path, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    // num of cmd which are using the dir
+    private final Map<Path, Integer> inUse = new HashMap<>();
+
+    // dirs used since last scan
+    private final Set<Path> dirty = new HashSet<>();
+
+    // evicted dirs which are waiting for delete
+    private final List<Path> trash = new LinkedList<>();
+
+    private long lastScanAt = 0;
+
+    /**
+     * @param root root dir of cached workspace
+     * @param budget disk space budget in bytes, cache is disabled if 0
+     */
+    public WorkspaceCache(Path root, long budget) {
+        this(root, budget, DEFAULT_SCAN_PERIOD);
+    }
+
+    /**
+     * @param scanPeriod min period in millis between disk usage scans
+     */
+    public WorkspaceCache(Path root, long budget, long scanPeriod) {
+        this.root = root;
+        this.budget = budget;
+        this.scanPeriod = scanPeriod;
+
+        if (budget > 0) {
+            load();
+        }
+    }
+
+    /**
+     * Get working dir for cmd inputs
+     *
+     * @return cached dir of git repo, or null if git url not in inputs or cache disabled
+     */
+    public synchronized Path acquire(Map<String, String> inputs) {
+        if (budget <= 0 || inputs == null) {
+            return null;
+        }
+
+        String gitUrl = inputs.get(GIT_URL_ENV);
+        if (Strings.isNullOrEmpty(gitUrl)) {
+            return null;
+        }
+
+        Path dir = Paths.get(root.toString(), dirName(inputs.get(FLOW_NAME_ENV), gitUrl));
+        inUse.merge(dir, 1, Integer::sum);
+
+        // mark as recently used
+        sizes.get(dir);
+        return dir;
+    }
+
+    /**
+     * Mark dir as used after cmd finished, then update usage and evict least recently used dirs
+     * if scan period passed
+     */
+    public void release(Path dir) {
+        dir.toFile().setLastModified(System.currentTimeMillis());
+
+        List<Path> toScan;
+        synchronized (this) {
+            inUse.computeIfPresent(dir, (key, count) -> count > 1 ? count - 1 : null);
+            if (sizes.get(dir) == null) {
+                sizes.put(dir, 0L);
+            }
+            dirty.add(dir);
+
+            long now = System.currentTimeMillis();
+            if (now - lastScanAt < scanPeriod) {
+                return;
+            }
+
+            lastScanAt = now;
+            toScan = new ArrayList<>(dirty);
+            dirty.clear();
+        }
+
+        scan(toScan);
+    }
+
+    /**
+     * @return total disk usage of cached dirs in bytes since last scan
+     */
+    public synchronized long usage() {
+        long total = 0;
+        for (Long size : sizes.values()) {
+            total += size;
+        }
+        return total;
+    }
+
+    public synchronized boolean contains(Path dir) {
+        return sizes.containsKey(dir);
+    }
+
+    private void scan(List<Path> dirs) {
+        Map<Path, Long> scanned = new HashMap<>(dirs.size());
+        for (Path dir : dirs) {
+            scanned.put(dir, dir.toFile().exists() ? sizeOf(dir) : -1L);
+        }
+
+        List<Path> toDelete;
+        synchronized (this) {
+            // update by entry since put or replace changes the access order
+            Iterator<Map.Entry<Path, Long>> iterator = sizes.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Path, Long> entry = iterator.next();
+                Long size = scanned.get(entry.getKey());
+                if (size == null) {
+                    continue;
+                }
+
+                if (size < 0) {
+                    iterator.remove();
+                } else {
+                    entry.setValue(size);
+                }
+            }
+
+            evict();
+            toDelete = new ArrayList<>(trash);
+            trash.clear();
+        }
+
+        for (Path dir : toDelete) {
+            try {
+                delete(dir);
+                LOGGER.trace("Cached workspace been deleted: %s", dir);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to delete cached workspace '%s': %s", dir, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Move least recently used idle dirs to trash until usage under budget
+     */
+    private void evict() {
+        long total = usage();
+        Iterator<Map.Entry<Path, Long>> iterator = sizes.entrySet().iterator();
+
+        while (total > budget && iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            Path dir = entry.getKey();
+            if (inUse.containsKey(dir)) {
+                continue;
+            }
+
+            try {
+                Path moved = Paths.get(root.toString(), TRASH_PREFIX + dir.getFileName() + "-" + System.nanoTime());
+                Files.move(dir, moved);
+                trash.add(moved);
+
+                total -= entry.getValue();
+                iterator.remove();
+                dirty.remove(dir);
+                LOGGER.trace("Cached workspace been evicted: %s", dir);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to evict cached workspace '%s': %s", dir, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Load existing dirs in order of last modified time, the size will be updated on first scan
+     */
+    private void load() {
+        File[] dirs = root.toFile().listFiles(File::isDirectory);
+        if (dirs == null) {
+            return;
+        }
+
+        Arrays.sort(dirs, Comparator.comparingLong(File::lastModified));
+        for (File dir : dirs) {
+            if (dir.getName().startsWith(TRASH_PREFIX)) {
+                trash.add(dir.toPath());
+                continue;
+            }
+
+            sizes.put(dir.toPath(), 0L);
+            dirty.add(dir.toPath());
+        }
+    }
+
+    /**
+     * Dir name from repo name and hash of flow name and git url, ex: flow-platform-1a2b3c4d
+     */
+    private static String dirName(String flowName, String gitUrl) {
+        String name = gitUrl.substring(gitUrl.lastIndexOf('/') + 1);
+        if (name.endsWith(".git")) {
+            name = name.substring(0, name.length() - 4);
+        }
+
+        name = name.replaceAll("[^a-zA-Z0-9._-]", "_");
+        String key = Strings.nullToEmpty(flowName) + "@" + gitUrl;
+        String hash = Hashing.sha1().hashString(key, Charsets.UTF_8).toString().substring(0, 8);
+        return name + "-" + hash;
+    }
+
+    private static long sizeOf(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
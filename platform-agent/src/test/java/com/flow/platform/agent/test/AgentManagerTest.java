@@ -18,8 +18,11 @@ package com.flow.platform.agent.test;
 
 import com.flow.platform.agent.AgentManager;
 import com.flow.platform.agent.Config;
+import com.flow.platform.domain.AgentResume;
+import com.flow.platform.domain.AgentSettings;
 import com.flow.platform.domain.Cmd;
 import com.flow.platform.domain.CmdType;
+import com.flow.platform.domain.Jsonable;
 import com.flow.platform.util.zk.ZKClient;
 import com.flow.platform.util.zk.ZkException;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -27,6 +30,9 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent.Type;
 import org.apache.curator.test.TestingServer;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.ZKUtil;
@@ -103,6 +109,87 @@ public class AgentManagerTest extends TestBase {
         agent.stop();
     }
 
+    @Test
+    public void should_update_settings_when_zone_data_changed() throws Throwable {
+        AgentSettings origin = Config.AGENT_SETTINGS;
+        AgentManager agent = new AgentManager(server.getConnectString(), 20000, ZONE, MACHINE);
+
+        try {
+            new Thread(agent).start();
+            waitFor(() -> zkClient.exist(agent.getNodePath()));
+
+            // when: update settings on zone node
+            AgentSettings settings = new AgentSettings("ws://new/logging", "http://new/report", "http://new/upload");
+            zkClient.setData(ZKPaths.makePath(ZK_ROOT, ZONE), settings.toBytes());
+            waitFor(() -> "ws://new/logging".equals(Config.agentSettings().getWebSocketUrl()));
+
+            // then: agent settings updated without restart
+            Assert.assertEquals("ws://new/logging", Config.agentSettings().getWebSocketUrl());
+            Assert.assertEquals("http://new/report", Config.agentSettings().getCmdStatusUrl());
+            Assert.assertEquals("http://new/upload", Config.agentSettings().getCmdLogUrl());
+
+            // then: settings with outdated version should be ignored
+            Assert.assertFalse(Config.updateAgentConfig(origin == null ? settings.toBytes() : origin.toBytes(), 0));
+        } finally {
+            agent.stop();
+            Config.resetAgentConfig();
+            Config.AGENT_SETTINGS = origin;
+        }
+    }
+
+    @Test
+    public void should_register_again_if_node_removed_while_disconnected() throws Throwable {
+        AgentManager agent = new AgentManager(server.getConnectString(), 20000, ZONE, "resume-" + MACHINE);
+        Thread thread = new Thread(agent);
+
+        try {
+            thread.start();
+            waitFor(() -> zkClient.exist(agent.getNodePath()));
+
+            // when: node removed by session expired while connection lost
+            agent.childEvent(null, new TreeCacheEvent(Type.CONNECTION_LOST, null));
+            zkClient.delete(agent.getNodePath(), false);
+
+            // then: agent should register again with resume data
+            waitFor(() -> zkClient.exist(agent.getNodePath()));
+            Assert.assertTrue(zkClient.exist(agent.getNodePath()));
+
+            AgentResume resume = Jsonable.parse(zkClient.getData(agent.getNodePath()), AgentResume.class);
+            Assert.assertNotNull(resume);
+            Assert.assertNotNull(resume.getRunning());
+            Assert.assertTrue(thread.isAlive());
+        } finally {
+            agent.stop();
+            agent.getZkClient().close();
+        }
+    }
+
+    @Test
+    public void should_close_agent_if_node_removed_after_reconnected() throws Throwable {
+        AgentManager agent = new AgentManager(server.getConnectString(), 20000, ZONE, "reconnect-" + MACHINE);
+        Thread thread = new Thread(agent);
+
+        try {
+            thread.start();
+            waitFor(() -> zkClient.exist(agent.getNodePath()));
+
+            // when: connection suspended then reconnected
+            agent.childEvent(null, new TreeCacheEvent(Type.CONNECTION_SUSPENDED, null));
+            agent.childEvent(null, new TreeCacheEvent(Type.CONNECTION_RECONNECTED, null));
+
+            // when: node removed by control center
+            zkClient.delete(agent.getNodePath(), false);
+
+            // then: agent should be closed instead of register again
+            thread.join(10 * 1000);
+            Assert.assertFalse(thread.isAlive());
+            Assert.assertFalse(zkClient.exist(agent.getNodePath()));
+        } finally {
+            agent.stop();
+            agent.getZkClient().close();
+        }
+    }
+
     @After
     public void after() throws Throwable {
         zkClient.delete(ZKPaths.makePath(ZK_ROOT, ZONE, MACHINE), true);
@@ -113,4 +200,11 @@ public class AgentManagerTest extends TestBase {
     public static void done() throws Throwable {
         server.stop();
     }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10 * 1000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(100);
+        }
+    }
 }
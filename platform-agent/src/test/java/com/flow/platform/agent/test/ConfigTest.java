@@ -16,9 +16,20 @@
 
 package com.flow.platform.agent.test;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
 import com.flow.platform.agent.Config;
+import com.flow.platform.domain.AgentPath;
 import com.flow.platform.domain.AgentSettings;
 import com.flow.platform.util.zk.ZKClient;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.io.File;
+import java.io.IOException;
 import org.apache.curator.test.TestingServer;
 import org.apache.curator.utils.ZKPaths;
 import org.junit.After;
@@ -26,9 +37,9 @@ import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
-
-import java.io.IOException;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * @author gy@fir.im
@@ -37,10 +48,22 @@ public class ConfigTest extends TestBase {
 
     private final static String ROOT_PATH = "/flow-agents";
 
+    private final static String BASE_URL = "http://localhost:8080";
+
+    private final static String TOKEN = "test-token";
+
+    private final static String SETTINGS_URL = "/agents/settings?token=" + TOKEN;
+
     private static TestingServer server;
 
     private ZKClient zkClient;
 
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(8080);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @BeforeClass
     public static void init() throws Throwable {
         server = new TestingServer();
@@ -55,6 +78,8 @@ public class ConfigTest extends TestBase {
         String path = zkClient.create(ROOT_PATH, null);
         Assert.assertEquals(ROOT_PATH, path);
         Assert.assertEquals(true, zkClient.exist(path));
+
+        System.setProperty(Config.PROP_SETTINGS_DIR, folder.getRoot().toString());
     }
 
     @Test
@@ -77,9 +102,99 @@ public class ConfigTest extends TestBase {
         Assert.assertEquals(cmdLogUrl, Config.agentSettings().getCmdLogUrl());
     }
 
+    @Test
+    public void should_load_agent_settings_from_cached_file() throws Throwable {
+        stubSettings(aResponse().withStatus(200).withBody(createSettings().toJson()));
+
+        // when: load settings at first time
+        AgentSettings settings = Config.loadAgentConfig(BASE_URL, TOKEN);
+        Assert.assertEquals("localhost:2181", settings.getZookeeperUrl());
+        Assert.assertEquals(1, settingsFiles().length);
+
+        // then: settings should be loaded from cached file at next time
+        settings = Config.loadAgentConfig(BASE_URL, TOKEN);
+        Assert.assertEquals("localhost:2181", settings.getZookeeperUrl());
+        wireMockRule.verify(1, getRequestedFor(urlEqualTo(SETTINGS_URL)));
+    }
+
+    @Test
+    public void should_fetch_agent_settings_with_backoff() throws Throwable {
+        // given: server return 500 for the first two requests
+        wireMockRule.stubFor(get(urlEqualTo(SETTINGS_URL))
+            .inScenario("backoff")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(500))
+            .willSetStateTo("second"));
+
+        wireMockRule.stubFor(get(urlEqualTo(SETTINGS_URL))
+            .inScenario("backoff")
+            .whenScenarioStateIs("second")
+            .willReturn(aResponse().withStatus(500))
+            .willSetStateTo("third"));
+
+        wireMockRule.stubFor(get(urlEqualTo(SETTINGS_URL))
+            .inScenario("backoff")
+            .whenScenarioStateIs("third")
+            .willReturn(aResponse().withStatus(200).withBody(createSettings().toJson())));
+
+        // when:
+        long start = System.currentTimeMillis();
+        AgentSettings settings = Config.loadAgentConfig(BASE_URL, TOKEN);
+
+        // then: retried with delay at least half of 1s and 2s
+        Assert.assertNotNull(settings);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 1500);
+        wireMockRule.verify(3, getRequestedFor(urlEqualTo(SETTINGS_URL)));
+    }
+
+    @Test
+    public void should_delete_cached_settings_after_repeated_zookeeper_failure() throws Throwable {
+        stubSettings(aResponse().withStatus(200).withBody(createSettings().toJson()));
+        Config.loadAgentConfig(BASE_URL, TOKEN);
+
+        // when: zookeeper connected after a failure
+        Assert.assertFalse(Config.onZookeeperConnectFailure());
+        Config.onZookeeperConnected();
+
+        // then: failure should be reset and cached settings kept
+        Assert.assertFalse(Config.onZookeeperConnectFailure());
+        Assert.assertFalse(Config.onZookeeperConnectFailure());
+        Assert.assertEquals(2, settingsFiles().length);
+
+        // when: failure reach the limit
+        Assert.assertTrue(Config.onZookeeperConnectFailure());
+
+        // then: cached settings deleted and loaded from server again
+        Assert.assertEquals(0, settingsFiles().length);
+        Config.loadAgentConfig(BASE_URL, TOKEN);
+        wireMockRule.verify(2, getRequestedFor(urlEqualTo(SETTINGS_URL)));
+    }
+
     @After
     public void after() throws Throwable {
         zkClient.close();
+
+        System.clearProperty(Config.PROP_SETTINGS_DIR);
+        Config.resetAgentConfig();
+        beforeClassBase();
+    }
+
+    private void stubSettings(ResponseDefinitionBuilder response) {
+        wireMockRule.stubFor(get(urlEqualTo(SETTINGS_URL)).willReturn(response));
+    }
+
+    private File[] settingsFiles() {
+        return folder.getRoot().listFiles();
+    }
+
+    private static AgentSettings createSettings() {
+        AgentSettings settings = new AgentSettings(
+            "ws://localhost:8080/logging",
+            "http://localhost:8080/cmd/report",
+            "http://localhost:8080/cmd/log/upload",
+            "localhost:2181");
+        settings.setAgentPath(new AgentPath("ali", "agent"));
+        return settings;
     }
 
     @AfterClass
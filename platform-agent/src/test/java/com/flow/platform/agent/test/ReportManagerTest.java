@@ -16,19 +16,27 @@
 
 package com.flow.platform.agent.test;
 
+import com.flow.platform.agent.Config;
+import com.flow.platform.agent.LogChunkUploader;
 import com.flow.platform.agent.ReportManager;
 import com.flow.platform.domain.CmdResult;
 import com.flow.platform.domain.CmdStatus;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 
@@ -43,6 +51,23 @@ public class ReportManagerTest extends TestBase {
 
     private ReportManager reportManager = ReportManager.getInstance();
 
+    private String isUploadLog;
+
+    @Before
+    public void before() {
+        isUploadLog = System.getProperty(Config.PROP_UPLOAD_AGENT_LOG);
+        System.setProperty(Config.PROP_UPLOAD_AGENT_LOG, "true");
+    }
+
+    @After
+    public void after() {
+        if (isUploadLog == null) {
+            System.clearProperty(Config.PROP_UPLOAD_AGENT_LOG);
+        } else {
+            System.setProperty(Config.PROP_UPLOAD_AGENT_LOG, isUploadLog);
+        }
+    }
+
     @Test
     public void should_report_cmd_status() {
         // when:
@@ -75,4 +100,78 @@ public class ReportManagerTest extends TestBase {
         // then:
         Assert.assertTrue(result);
     }
+
+    @Test
+    public void should_upload_zipped_cmd_log_by_segments() throws Throwable {
+        Path path = createZippedLog("cmdId-001.out.zip");
+        long size = Files.size(path);
+
+        // given: server received all segments
+        stubFor(post(urlEqualTo("/cmd/log/upload/chunk"))
+                .willReturn(aResponse().withStatus(200).withBody(Long.toString(size))));
+
+        // when:
+        LogChunkUploader uploader = new LogChunkUploader("cmdId-001", path, "cmdId-001.out.zip", 0);
+
+        // then:
+        Assert.assertTrue(uploader.finish());
+        Assert.assertEquals(size, uploader.getUploaded());
+        verify(1, postRequestedFor(urlEqualTo("/cmd/log/upload/chunk")));
+    }
+
+    @Test
+    public void should_upload_segment_on_tick_after_period() throws Throwable {
+        Path path = createZippedLog("cmdId-003.out.zip");
+        long size = Files.size(path);
+
+        stubFor(post(urlEqualTo("/cmd/log/upload/chunk"))
+                .willReturn(aResponse().withStatus(200).withBody(Long.toString(size))));
+
+        // then: segment not uploaded within period
+        LogChunkUploader waiting = new LogChunkUploader("cmdId-003", path, "cmdId-003.out.zip", 60 * 1000);
+        waiting.tick();
+        Assert.assertEquals(0, waiting.getUploaded());
+
+        // when: tick after period
+        LogChunkUploader uploader = new LogChunkUploader("cmdId-003", path, "cmdId-003.out.zip", 0);
+        uploader.tick();
+
+        // then: segment uploaded in async
+        long timeout = System.currentTimeMillis() + 5000;
+        while (uploader.getUploaded() < size && System.currentTimeMillis() < timeout) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(size, uploader.getUploaded());
+
+        // then: no segment uploaded if no new log
+        uploader.tick();
+        Assert.assertTrue(uploader.finish());
+        verify(1, postRequestedFor(urlEqualTo("/cmd/log/upload/chunk")));
+    }
+
+    @Test
+    public void should_fail_to_upload_by_segments_if_no_progress() throws Throwable {
+        Path path = createZippedLog("cmdId-002.out.zip");
+
+        // given: server always ask to upload from beginning
+        stubFor(post(urlEqualTo("/cmd/log/upload/chunk"))
+                .willReturn(aResponse().withStatus(200).withBody("0")));
+
+        // then: should fallback to full log upload
+        LogChunkUploader uploader = new LogChunkUploader("cmdId-002", path, "cmdId-002.out.zip", 0);
+        Assert.assertFalse(uploader.finish());
+        Assert.assertTrue(uploader.isFailed());
+    }
+
+    private Path createZippedLog(String fileName) throws IOException {
+        Files.createDirectories(TEMP_LOG_DIR);
+        Path path = Paths.get(TEMP_LOG_DIR.toString(), fileName);
+
+        try (ZipOutputStream stream = new ZipOutputStream(Files.newOutputStream(path))) {
+            stream.putNextEntry(new ZipEntry(fileName));
+            stream.write("hello".getBytes());
+            stream.closeEntry();
+        }
+        return path;
+    }
 }
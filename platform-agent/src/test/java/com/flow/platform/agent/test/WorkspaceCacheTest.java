@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.agent.test;
+
+import com.flow.platform.agent.WorkspaceCache;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author yang
+ */
+public class WorkspaceCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void should_get_same_dir_for_same_flow_and_git_repo() throws IOException {
+        WorkspaceCache cache = new WorkspaceCache(folder.getRoot().toPath(), 1024);
+
+        Path first = cache.acquire(inputs("git@github.com:flow-ci/flow-platform.git"));
+        Path second = cache.acquire(inputs("git@github.com:flow-ci/flow-platform.git"));
+        Path other = cache.acquire(inputs("https://github.com/flow-ci/flow-platform.git"));
+        Path otherFlow = cache.acquire(inputs("other-flow", "git@github.com:flow-ci/flow-platform.git"));
+
+        Assert.assertEquals(first, second);
+        Assert.assertNotEquals(first, other);
+        Assert.assertNotEquals(first, otherFlow);
+        Assert.assertTrue(first.getFileName().toString().startsWith("flow-platform-"));
+
+        // then: return null if git url not in inputs
+        Assert.assertNull(cache.acquire(ImmutableMap.of()));
+        Assert.assertNull(cache.acquire(null));
+
+        // then: return null if cache disabled
+        Assert.assertNull(new WorkspaceCache(folder.getRoot().toPath(), 0).acquire(inputs("a.git")));
+    }
+
+    @Test
+    public void should_evict_least_recently_used_dir_over_budget() throws Throwable {
+        WorkspaceCache cache = new WorkspaceCache(folder.getRoot().toPath(), 1500, 0);
+
+        // when: two repos used and each dir has 600 bytes
+        Path first = cache.acquire(inputs("first.git"));
+        write(first, 600);
+        cache.release(first);
+
+        Path second = cache.acquire(inputs("second.git"));
+        write(second, 600);
+        cache.release(second);
+        Assert.assertEquals(1200, cache.usage());
+
+        // when: third repo is running and it makes usage over budget
+        Path third = cache.acquire(inputs("third.git"));
+        Path thirdAgain = cache.acquire(inputs("third.git"));
+        write(third, 600);
+        cache.release(third);
+
+        // then: the least recently used dir should be deleted
+        Assert.assertFalse(first.toFile().exists());
+        Assert.assertEquals(2, folder.getRoot().list().length);
+        Assert.assertTrue(second.toFile().exists());
+        Assert.assertTrue(third.toFile().exists());
+        Assert.assertEquals(1200, cache.usage());
+
+        // when: second repo grows over budget while third repo still in use
+        Path secondAgain = cache.acquire(inputs("second.git"));
+        write(secondAgain, 1000);
+        cache.release(secondAgain);
+
+        // then: only idle dir can be deleted
+        Assert.assertFalse(second.toFile().exists());
+        Assert.assertTrue(third.toFile().exists());
+        Assert.assertEquals(600, cache.usage());
+
+        cache.release(thirdAgain);
+        Assert.assertTrue(third.toFile().exists());
+        Assert.assertEquals(600, cache.usage());
+    }
+
+    @Test
+    public void should_update_usage_once_per_scan_period() throws Throwable {
+        WorkspaceCache cache = new WorkspaceCache(folder.getRoot().toPath(), 1024, 60 * 1000);
+
+        Path dir = cache.acquire(inputs("first.git"));
+        write(dir, 100);
+        cache.release(dir);
+        Assert.assertEquals(100, cache.usage());
+
+        // then: usage not updated within scan period
+        dir = cache.acquire(inputs("first.git"));
+        write(dir, 200);
+        cache.release(dir);
+        Assert.assertEquals(100, cache.usage());
+    }
+
+    @Test
+    public void should_load_existing_dirs_on_start_and_scan_lazily() throws Throwable {
+        WorkspaceCache cache = new WorkspaceCache(folder.getRoot().toPath(), 1024, 0);
+        Path dir = cache.acquire(inputs("first.git"));
+        write(dir, 100);
+        cache.release(dir);
+
+        // given: dir of evicted workspace not deleted before agent stopped
+        Path trash = folder.newFolder(".trash-second").toPath();
+        write(trash, 100);
+
+        // then: existing dirs loaded without scan
+        WorkspaceCache reloaded = new WorkspaceCache(folder.getRoot().toPath(), 1024, 0);
+        Assert.assertTrue(reloaded.contains(dir));
+        Assert.assertFalse(reloaded.contains(trash));
+        Assert.assertEquals(0, reloaded.usage());
+
+        // when: other dir released
+        Path other = reloaded.acquire(inputs("other.git"));
+        write(other, 50);
+        reloaded.release(other);
+
+        // then: usage of existing dirs updated and trash deleted
+        Assert.assertEquals(150, reloaded.usage());
+        Assert.assertFalse(trash.toFile().exists());
+    }
+
+    private static Map<String, String> inputs(String gitUrl) {
+        return inputs("flow", gitUrl);
+    }
+
+    private static Map<String, String> inputs(String flowName, String gitUrl) {
+        return ImmutableMap.of(WorkspaceCache.FLOW_NAME_ENV, flowName, WorkspaceCache.GIT_URL_ENV, gitUrl);
+    }
+
+    private static void write(Path dir, int size) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(Paths.get(dir.toString(), "file-" + size), new byte[size]);
+    }
+}
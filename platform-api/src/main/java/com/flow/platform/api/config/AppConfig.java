@@ -23,6 +23,7 @@ import com.flow.platform.core.config.DatabaseConfig;
 import com.flow.platform.core.util.ThreadUtil;
 import com.flow.platform.plugin.PluginConfig;
 import com.flow.platform.util.Logger;
+import com.flow.platform.util.git.GitRefCache;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -148,6 +149,14 @@ public class AppConfig extends AppConfigBase {
         return VERSION;
     }
 
+    /**
+     * Remote branches and tags reloaded in background after 1 min, and reloaded before return after 10 mins
+     */
+    @Bean
+    public GitRefCache gitRefCache() {
+        return new GitRefCache(executor, 60 * 1000, 10 * 60 * 1000);
+    }
+
     @Bean
     public PlatformURL platformURL() {
         PlatformURL platformURL = new PlatformURL(ccDomain);
@@ -161,6 +170,10 @@ public class AppConfig extends AppConfigBase {
         ve.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
         ve.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
 
+        // cache parsed templates since templates are packaged in classpath
+        ve.setProperty("classpath.resource.loader.cache", "true");
+        ve.setProperty("classpath.resource.loader.modificationCheckInterval", "-1");
+
         ve.setProperty(Velocity.ENCODING_DEFAULT, DEFAULT_CHARSET.name());
         ve.setProperty(Velocity.INPUT_ENCODING, DEFAULT_CHARSET.name());
         ve.setProperty(Velocity.OUTPUT_ENCODING, DEFAULT_CHARSET.name());
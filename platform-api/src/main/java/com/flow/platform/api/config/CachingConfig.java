@@ -16,13 +16,24 @@
 
 package com.flow.platform.api.config;
 
+import com.flow.platform.api.domain.node.Node;
+import com.flow.platform.api.domain.node.NodeTree;
+import com.flow.platform.api.util.NodeUtil;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import java.util.concurrent.TimeUnit;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.guava.GuavaCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 /**
  * @author yh@firim
@@ -31,19 +42,78 @@ import org.springframework.context.annotation.Configuration;
 @EnableCaching
 public class CachingConfig {
 
-    private final static int EXPIRE_CACHE_SECOND = 3600 * 24;
+    /**
+     * Property name to override cache spec, ex: cache.spec.treeCache
+     */
+    private final static String CACHE_SPEC_PROPERTY = "cache.spec.%s";
 
-    private final static int MAX_CACHE_NUM = 100;
+    /**
+     * Spec for cache which not defined in CACHE_SPECS
+     */
+    private final static String DEFAULT_SPEC = "maximumSize=100,expireAfterAccess=24h,recordStats";
 
-    private CacheBuilder cacheBuilder = CacheBuilder
-        .newBuilder()
-        .expireAfterAccess(EXPIRE_CACHE_SECOND, TimeUnit.SECONDS)
-        .maximumSize(MAX_CACHE_NUM);
+    /**
+     * Default cache spec by cache name, the node tree caches are limited by num of node instead of num of tree,
+     * the ymlNodeCache is parsed yml root node by hash of yml content which shared by flow and job trees
+     */
+    private final static Map<String, String> CACHE_SPECS = ImmutableMap.<String, String>builder()
+        .put("treeCache", "maximumWeight=20000,expireAfterAccess=24h,recordStats")
+        .put("jobNodeTreeCache", "maximumWeight=50000,expireAfterAccess=1h,recordStats")
+        .put("ymlNodeCache", "maximumWeight=20000,expireAfterAccess=1h,recordStats")
+        .put("gitClientCache", "maximumSize=200,expireAfterAccess=30m,recordStats")
+        .put("messageSettingCache", "maximumSize=10,recordStats")
+        .build();
+
+    /**
+     * Caches limited by maximumWeight of NODE_TREE_WEIGHER
+     */
+    private final static Set<String> NODE_WEIGHTED_CACHES =
+        ImmutableSet.of("treeCache", "jobNodeTreeCache", "ymlNodeCache");
+
+    /**
+     * Weight node tree and parsed yml node by num of node, other value as 1
+     */
+    private final static Weigher<Object, Object> NODE_TREE_WEIGHER = (key, value) -> {
+        if (value instanceof NodeTree) {
+            return ((NodeTree) value).childrenSize() + 1;
+        }
+
+        if (value instanceof Node) {
+            return NodeUtil.flat((Node) value).size();
+        }
+
+        return 1;
+    };
+
+    @Autowired
+    private Environment env;
 
     @Bean
     public CacheManager cacheManager() {
-        GuavaCacheManager guavaCacheManager = new GuavaCacheManager();
-        guavaCacheManager.setCacheBuilder(cacheBuilder);
-        return guavaCacheManager;
+        return new GuavaCacheManager() {
+            @Override
+            protected Cache<Object, Object> createNativeGuavaCache(String name) {
+                String spec = env.getProperty(String.format(CACHE_SPEC_PROPERTY, name), defaultSpec(name));
+                return createCacheBuilder(name, spec).build();
+            }
+        };
+    }
+
+    public static String defaultSpec(String name) {
+        return CACHE_SPECS.getOrDefault(name, DEFAULT_SPEC);
+    }
+
+    public static CacheBuilder<Object, Object> createCacheBuilder(String name) {
+        return createCacheBuilder(name, defaultSpec(name));
+    }
+
+    public static CacheBuilder<Object, Object> createCacheBuilder(String name, String spec) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.from(CacheBuilderSpec.parse(spec));
+
+        if (NODE_WEIGHTED_CACHES.contains(name)) {
+            builder.weigher(NODE_TREE_WEIGHER);
+        }
+
+        return builder;
     }
 }
@@ -20,6 +20,7 @@ import com.flow.platform.api.consumer.AgentStatusEventConsumer;
 import com.flow.platform.api.consumer.CmdLoggingConsumer;
 import com.flow.platform.api.consumer.JobStatusEventConsumer;
 import com.flow.platform.api.consumer.NodeStatusEventConsumer;
+import com.flow.platform.api.push.JobDeltaPusher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -47,10 +48,21 @@ public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer im
 
     public final static String TOPIC_FOR_JOB = "/topic/job";
 
+    // json array of job delta, the /topic/job still publish full job on job status changed
+    public final static String TOPIC_FOR_JOB_DELTA = "/topic/job-delta";
+
     public final static String TOPIC_FOR_CMD = "/topic/cmd";
 
     public final static String TOPIC_FOR_AGENT = "/topic/agent";
 
+    // window to coalesce job deltas of the same topic
+    private final static long JOB_DELTA_WINDOW_IN_MILLIS = 200;
+
+    @Bean
+    public JobDeltaPusher jobDeltaPusher() {
+        return new JobDeltaPusher(JOB_DELTA_WINDOW_IN_MILLIS);
+    }
+
     @Bean
     public WebSocketHandler cmdLoggingConsumer() {
         return new CmdLoggingConsumer();
@@ -79,7 +91,7 @@ public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer im
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker(TOPIC_FOR_JOB, TOPIC_FOR_CMD, TOPIC_FOR_AGENT);
+        config.enableSimpleBroker(TOPIC_FOR_JOB, TOPIC_FOR_JOB_DELTA, TOPIC_FOR_CMD, TOPIC_FOR_AGENT);
         config.setApplicationDestinationPrefixes("/app");
     }
 
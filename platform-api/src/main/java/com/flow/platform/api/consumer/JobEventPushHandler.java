@@ -18,36 +18,29 @@ package com.flow.platform.api.consumer;
 
 import com.flow.platform.api.config.WebSocketConfig;
 import com.flow.platform.api.domain.job.Job;
+import com.flow.platform.api.domain.job.JobDelta;
+import com.flow.platform.api.push.JobDeltaPusher;
 import com.flow.platform.api.push.PushHandler;
-import com.flow.platform.api.service.job.JobService;
-import com.flow.platform.core.exception.NotFoundException;
-import java.math.BigInteger;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
+ * Push job and node result status change as delta to /topic/job-delta, the web should apply delta on loaded job.
+ * The full job from event still pushed to /topic/job on job status changed
+ *
  * @author yang
  */
 public abstract class JobEventPushHandler extends PushHandler {
 
     @Autowired
-    private JobService jobService;
+    private JobDeltaPusher jobDeltaPusher;
 
-    protected void push(BigInteger jobId) {
-        Job job = jobService.find(jobId);
-        String jobTopic = String.format("%s/%s", WebSocketConfig.TOPIC_FOR_JOB, job.getNodePath());
-        super.push(jobTopic, job);
+    protected void push(JobDelta delta) {
+        String deltaTopic = String.format("%s/%s", WebSocketConfig.TOPIC_FOR_JOB_DELTA, delta.getNodePath());
+        jobDeltaPusher.push(deltaTopic, delta);
     }
 
-    //TODO: because transaction not found job, add READ_UNCOMMITTED also no use
     protected void push(Job job) {
-        Job jobConsist;
-        try {
-            jobConsist = jobService.find(job.getId());
-        } catch (NotFoundException e) {
-            jobConsist = job;
-        }
-        jobConsist.setStatus(job.getStatus());
-        String jobTopic = String.format("%s/%s", WebSocketConfig.TOPIC_FOR_JOB, jobConsist.getNodePath());
-        super.push(jobTopic, jobConsist);
+        String jobTopic = String.format("%s/%s", WebSocketConfig.TOPIC_FOR_JOB, job.getNodePath());
+        super.push(jobTopic, job);
     }
 }
@@ -17,13 +17,13 @@
 package com.flow.platform.api.consumer;
 
 import com.flow.platform.api.domain.job.Job;
+import com.flow.platform.api.domain.job.JobDelta;
 import com.flow.platform.api.domain.job.JobStatus;
 import com.flow.platform.api.events.JobStatusChangeEvent;
 import com.flow.platform.api.service.MessageService;
 import com.flow.platform.util.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
-import org.springframework.core.task.TaskExecutor;
 
 /**
  * To handle JobStatusChangeEvent and NodeResultStatusChangeEvent
@@ -34,9 +34,6 @@ public class JobStatusEventConsumer extends JobEventPushHandler implements Appli
 
     private final static Logger LOGGER = new Logger(JobStatusEventConsumer.class);
 
-    @Autowired
-    private TaskExecutor taskExecutor;
-
     @Autowired
     private MessageService messageService;
 
@@ -45,7 +42,9 @@ public class JobStatusEventConsumer extends JobEventPushHandler implements Appli
         LOGGER
             .debug("Job %s status change event from %s to %s", event.getJob().getId(), event.getFrom(), event.getTo());
 
-        push(event.getJob());
+        Job job = event.getJob();
+        push(job);
+        push(new JobDelta(job.getId(), job.getNodePath(), null, event.getFrom().name(), event.getTo().name(), null));
 
         // async send message TODO:// only send failure message
         if (Job.FAILURE_STATUS.contains(event.getTo())) {
@@ -54,6 +53,7 @@ public class JobStatusEventConsumer extends JobEventPushHandler implements Appli
     }
 
     private void sendMessage(Job job, JobStatus status) {
-        taskExecutor.execute(() -> messageService.sendMessage(job, status));
+        // message service has its own notify worker
+        messageService.sendMessage(job, status);
     }
 }
@@ -16,8 +16,10 @@
 
 package com.flow.platform.api.consumer;
 
+import com.flow.platform.api.domain.job.JobDelta;
 import com.flow.platform.api.domain.job.NodeResultKey;
 import com.flow.platform.api.events.NodeStatusChangeEvent;
+import com.flow.platform.api.util.PathUtil;
 import com.flow.platform.util.Logger;
 import org.springframework.context.ApplicationListener;
 
@@ -33,6 +35,9 @@ public class NodeStatusEventConsumer extends JobEventPushHandler implements Appl
         NodeResultKey resultKey = event.getResultKey();
         LOGGER.debug("Node result %s status change event from %s to %s",
             resultKey.getPath(), event.getFrom(), event.getTo());
-        push(resultKey.getJobId());
+
+        String flowPath = PathUtil.rootPath(resultKey.getPath());
+        push(new JobDelta(resultKey.getJobId(), flowPath, resultKey.getPath(),
+            event.getFrom().name(), event.getTo().name(), event.getDuration()));
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.controller;
+
+import com.flow.platform.api.domain.permission.Actions;
+import com.flow.platform.api.domain.response.CacheStatistic;
+import com.flow.platform.api.security.WebSecurity;
+import com.google.common.cache.Cache;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.guava.GuavaCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * @author yang
+ */
+@RestController
+@RequestMapping(path = "/caches")
+public class CacheController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * @api {get} /caches/stats Stats
+     * @apiGroup Cache
+     * @apiDescription Get size and hit/miss statistics of caches
+     *
+     * @apiSuccessExample {json} Success-Response
+     *  [
+     *      {
+     *          name: treeCache,
+     *          size: 10,
+     *          hitCount: 100,
+     *          missCount: 10,
+     *          hitRate: 0.909,
+     *          loadCount: 10,
+     *          evictionCount: 0
+     *      }
+     *  ]
+     */
+    @GetMapping(path = "/stats")
+    @WebSecurity(action = Actions.ADMIN_SHOW)
+    public List<CacheStatistic> stats() {
+        List<CacheStatistic> stats = new ArrayList<>(cacheManager.getCacheNames().size());
+
+        for (String name : cacheManager.getCacheNames()) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(name);
+            if (!(cache instanceof GuavaCache)) {
+                continue;
+            }
+
+            Cache<Object, Object> nativeCache = ((GuavaCache) cache).getNativeCache();
+            stats.add(new CacheStatistic(name, nativeCache.size(), nativeCache.stats()));
+        }
+
+        return stats;
+    }
+}
@@ -25,6 +25,7 @@ import com.flow.platform.api.envs.GitEnvs;
 import com.flow.platform.api.envs.GitToggleEnvs;
 import com.flow.platform.api.git.GitEventEnvConverter;
 import com.flow.platform.api.git.GitWebhookTriggerFinishEvent;
+import com.flow.platform.api.service.GitService;
 import com.flow.platform.api.service.job.JobService;
 import com.flow.platform.core.exception.FlowException;
 import com.flow.platform.core.exception.IllegalStatusException;
@@ -65,6 +66,9 @@ public class GitWebHookController extends NodeController {
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private GitService gitService;
+
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
@@ -84,6 +88,10 @@ public class GitWebHookController extends NodeController {
         try {
             final GitEvent hookEvent = GitHookEventFactory.build(headerAsMap, body);
             Node flow = nodeService.find(path).root();
+
+            // branches or tags may changed by git event
+            gitService.evictRefs(flow);
+
             // extract git related env variables from event, and temporary set to node for git loading
             final Map<String, String> gitEnvs = GitEventEnvConverter.convert(hookEvent);
 
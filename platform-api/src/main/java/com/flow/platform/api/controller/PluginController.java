@@ -314,6 +314,7 @@ public class PluginController {
      *     {
      *         "default#agent-1": {
      *              "total": 2,
+     *              "status": RUNNING,
      *              "syncQueue": [
      *                  {
      *                      repo: {
@@ -53,8 +53,8 @@ public class CredentialDaoImpl extends AbstractBaseDao<String, Credential> imple
 
     @Override
     public List<Credential> listByType(Collection<CredentialType> types) {
-        return execute(session -> session
-            .createQuery("from Credential where type in :types", getEntityClass())
+        return execute(session -> cacheable(session
+            .createQuery("from Credential where type in :types", getEntityClass()))
             .setParameterList("types", types)
             .list());
     }
@@ -40,8 +40,8 @@ public class FlowDaoImpl extends AbstractBaseDao<String, Node> implements FlowDa
 
     @Override
     public List<String> pathList(Collection<String> createdBy) {
-        return execute(session -> session
-            .createQuery("select path from Node where createdBy in :createdByList", String.class)
+        return execute(session -> cacheable(session
+            .createQuery("select path from Node where createdBy in :createdByList", String.class))
             .setParameterList("createdByList", createdBy)
             .list());
     }
@@ -45,6 +45,11 @@ public class CredentialDetailAdaptor extends BaseAdaptor {
         return null;
     }
 
+    @Override
+    protected Object copy(Object value) {
+        return copyByJson(value);
+    }
+
     @Override
     public Object nullSafeGet(ResultSet rs,
                               String[] names,
@@ -39,6 +39,11 @@ public class SettingContentAdaptor extends BaseAdaptor {
         return null;
     }
 
+    @Override
+    protected Object copy(Object value) {
+        return copyByJson(value);
+    }
+
     @Override
     public Object nullSafeGet(ResultSet rs,
         String[] names,
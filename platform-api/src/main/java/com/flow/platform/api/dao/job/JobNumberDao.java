@@ -24,6 +24,25 @@ import com.flow.platform.core.dao.BaseDao;
  */
 public interface JobNumberDao extends BaseDao<String, JobNumber> {
 
+    /**
+     * Increase build number by one in current transaction
+     */
     JobNumber increase(String path);
 
+    /**
+     * Reserve block of build numbers in a new transaction, so the row lock is released immediately
+     *
+     * @param path flow path
+     * @param size num of build number to reserve
+     * @return job number with last number of the reserved block, or null if job number not existed
+     */
+    JobNumber increase(String path, long size);
+
+    /**
+     * Set build number back to number only if build number not changed from expect
+     *
+     * @return true if build number been set back
+     */
+    boolean release(String path, long expect, long number);
+
 }
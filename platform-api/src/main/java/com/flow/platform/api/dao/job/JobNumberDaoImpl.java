@@ -19,6 +19,8 @@ package com.flow.platform.api.dao.job;
 import com.flow.platform.api.domain.job.JobNumber;
 import com.flow.platform.core.dao.AbstractBaseDao;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * @author yang
@@ -38,17 +40,52 @@ public class JobNumberDaoImpl extends AbstractBaseDao<String, JobNumber> impleme
 
     @Override
     public JobNumber increase(final String path) {
+        return increaseBy(path, 1L);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public JobNumber increase(final String path, final long size) {
+        return increaseBy(path, size);
+    }
+
+    @Override
+    public boolean release(final String path, final long expect, final long number) {
+        return execute(session -> {
+            final String sql =
+                "update job_number set build_number = :number\n" +
+                "where node_path = :nodePath and build_number = :expect";
+
+            // sync job number only, otherwise native update evicts all second level cache regions
+            int numOfUpdated = session.createNativeQuery(sql)
+                .addSynchronizedEntityClass(getEntityClass())
+                .setParameter("number", number)
+                .setParameter("nodePath", path)
+                .setParameter("expect", expect)
+                .executeUpdate();
+
+            return numOfUpdated > 0;
+        });
+    }
+
+    private JobNumber increaseBy(final String path, final long size) {
         return execute(session -> {
             final String sql =
                 "update job_number as a\n" +
                 "inner join job_number as b on a.node_path = b.node_path\n" +
-                "set a.build_number = (b.build_number + 1)\n" +
+                "set a.build_number = (b.build_number + :size)\n" +
                 "where a.node_path = :nodePath";
 
             int numOfUpdated = session.createNativeQuery(sql)
+                .addSynchronizedEntityClass(getEntityClass())
+                .setParameter("size", size)
                 .setParameter("nodePath", path)
                 .executeUpdate();
 
+            if (numOfUpdated == 0) {
+                return null;
+            }
+
             JobNumber number = session.get(getEntityClass(), path);
             session.refresh(number);
             return number;
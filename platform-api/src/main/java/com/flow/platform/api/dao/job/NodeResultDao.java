@@ -21,6 +21,7 @@ import com.flow.platform.api.domain.job.NodeStatus;
 import com.flow.platform.api.domain.job.NodeTag;
 import com.flow.platform.core.dao.BaseDao;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -43,6 +44,11 @@ public interface NodeResultDao extends BaseDao<NodeResultKey, NodeResult> {
      */
     List<NodeResult> list(BigInteger jobId);
 
+    /**
+     * List node result for job by node paths
+     */
+    List<NodeResult> list(BigInteger jobId, Collection<String> paths);
+
     /**
      * Update status to all node result by job id
      */
@@ -21,6 +21,7 @@ import com.flow.platform.api.domain.job.NodeStatus;
 import com.flow.platform.api.domain.job.NodeTag;
 import com.flow.platform.core.dao.AbstractBaseDao;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -83,6 +84,15 @@ public class NodeResultDaoImpl extends AbstractBaseDao<NodeResultKey, NodeResult
         });
     }
 
+    @Override
+    public List<NodeResult> list(BigInteger jobId, Collection<String> paths) {
+        return execute(session -> session
+            .createQuery("from NodeResult where key.jobId = :jobId and key.path in ( :paths )", NodeResult.class)
+            .setParameter("jobId", jobId)
+            .setParameterList("paths", paths)
+            .list());
+    }
+
     @Override
     public int update(BigInteger jobId, NodeStatus target) {
         return execute(session -> {
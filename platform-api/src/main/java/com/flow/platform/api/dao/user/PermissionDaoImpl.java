@@ -39,16 +39,16 @@ public class PermissionDaoImpl extends AbstractBaseDao<PermissionKey, Permission
 
     @Override
     public List<Integer> list(String action) {
-        return execute(session -> session
-            .createQuery("select key.roleId from Permission where key.action = ?", Integer.class)
+        return execute(session -> cacheable(session
+            .createQuery("select key.roleId from Permission where key.action = ?", Integer.class))
             .setParameter(0, action)
             .list());
     }
 
     @Override
     public List<String> list(Integer roleId) {
-        return execute(session -> session
-            .createQuery("select key.action from Permission where key.roleId = ?", String.class)
+        return execute(session -> cacheable(session
+            .createQuery("select key.action from Permission where key.roleId = ?", String.class))
             .setParameter(0, roleId)
             .list());
     }
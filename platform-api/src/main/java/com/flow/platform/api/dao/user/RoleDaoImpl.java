@@ -38,7 +38,7 @@ public class RoleDaoImpl extends AbstractBaseDao<Integer, Role> implements RoleD
 
     @Override
     public Role get(final String name) {
-        return execute(session -> session.createQuery("from Role r where r.name = ?", getEntityClass())
+        return execute(session -> cacheable(session.createQuery("from Role r where r.name = ?", getEntityClass()))
             .setParameter(0, name)
             .uniqueResult());
     }
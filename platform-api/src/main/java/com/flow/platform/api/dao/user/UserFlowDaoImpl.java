@@ -40,16 +40,16 @@ public class UserFlowDaoImpl extends AbstractBaseDao<UserFlowKey, UserFlow> impl
 
     @Override
     public List<String> listByEmail(String email) {
-        return execute(session -> session
-            .createQuery("select key.flowPath from UserFlow where key.email = ?", String.class)
+        return execute(session -> cacheable(session
+            .createQuery("select key.flowPath from UserFlow where key.email = ?", String.class))
             .setParameter(0, email)
             .list());
     }
 
     @Override
     public List<String> listByFlowPath(String flowPath) {
-        return execute(session -> session
-            .createQuery("select key.email from UserFlow where key.flowPath = ?", String.class)
+        return execute(session -> cacheable(session
+            .createQuery("select key.email from UserFlow where key.flowPath = ?", String.class))
             .setParameter(0, flowPath)
             .list());
     }
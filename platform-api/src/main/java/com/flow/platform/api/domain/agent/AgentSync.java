@@ -16,6 +16,7 @@
 
 package com.flow.platform.api.domain.agent;
 
+import com.flow.platform.api.domain.sync.SyncTaskStatus;
 import com.google.gson.annotations.Expose;
 
 /**
@@ -27,14 +28,14 @@ public class AgentSync {
     private Integer total;
 
     @Expose
-    private Integer progress;
+    private SyncTaskStatus status;
 
     public AgentSync() {
     }
 
-    public AgentSync(Integer total, Integer progress) {
+    public AgentSync(Integer total, SyncTaskStatus status) {
         this.total = total;
-        this.progress = progress;
+        this.status = status;
     }
 
     public Integer getTotal() {
@@ -45,11 +46,11 @@ public class AgentSync {
         this.total = total;
     }
 
-    public Integer getProgress() {
-        return progress;
+    public SyncTaskStatus getStatus() {
+        return status;
     }
 
-    public void setProgress(Integer progress) {
-        this.progress = progress;
+    public void setStatus(SyncTaskStatus status) {
+        this.status = status;
     }
 }
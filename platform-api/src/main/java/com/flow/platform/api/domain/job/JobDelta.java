@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.domain.job;
+
+import com.flow.platform.domain.Jsonable;
+import com.google.gson.annotations.Expose;
+import java.math.BigInteger;
+
+/**
+ * Status change of job or node result pushed to web instead of full job
+ *
+ * @author yang
+ */
+public class JobDelta extends Jsonable {
+
+    @Expose
+    private BigInteger jobId;
+
+    /**
+     * Root path of job flow
+     */
+    @Expose
+    private String nodePath;
+
+    /**
+     * Path of node result, null for job status change
+     */
+    @Expose
+    private String path;
+
+    @Expose
+    private String from;
+
+    @Expose
+    private String to;
+
+    /**
+     * Duration of node result in seconds, null for job status change
+     */
+    @Expose
+    private Long duration;
+
+    public JobDelta(BigInteger jobId, String nodePath, String path, String from, String to, Long duration) {
+        this.jobId = jobId;
+        this.nodePath = nodePath;
+        this.path = path;
+        this.from = from;
+        this.to = to;
+        this.duration = duration;
+    }
+
+    public BigInteger getJobId() {
+        return jobId;
+    }
+
+    public String getNodePath() {
+        return nodePath;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Key to coalesce deltas of the same job or node result
+     */
+    public String key() {
+        return path == null ? jobId.toString() : jobId.toString() + "/" + path;
+    }
+
+    @Override
+    public String toString() {
+        return "JobDelta{" +
+            "jobId=" + jobId +
+            ", nodePath='" + nodePath + '\'' +
+            ", path='" + path + '\'' +
+            ", from='" + from + '\'' +
+            ", to='" + to + '\'' +
+            ", duration=" + duration +
+            '}';
+    }
+}
@@ -19,27 +19,47 @@ package com.flow.platform.api.domain.node;
 import com.flow.platform.api.envs.EnvUtil;
 import com.flow.platform.api.util.NodeUtil;
 import com.flow.platform.core.exception.IllegalParameterException;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 
 /**
+ * Node tree with flatted indexes, the step navigation is O(1) and independent of num of node
+ *
  * @author yang
  */
 public class NodeTree {
 
+    private final static int NOT_FOUND = -1;
+
     /**
-     * The tree cache by path
+     * Node ordinal in children by path, root node is not included
      */
-    private final Cache<String, Node> treeCache = CacheBuilder.newBuilder().build();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    /**
+     * Node by path includes root
+     */
+    private final Map<String, Node> nodes = new HashMap<>();
 
     /**
      * Ordered tree list without root, used for find next and prev steps
      */
-    private final LinkedList<Node> children = new LinkedList<>();
+    private final List<Node> children = new ArrayList<>();
+
+    /**
+     * Ordinal of next final node for each ordinal of children, -1 if not found
+     */
+    private int[] nextFinals;
+
+    /**
+     * Ordinal of first normal node and last final node in children
+     */
+    private int firstNormal = NOT_FOUND;
+
+    private int lastFinal = NOT_FOUND;
 
     private final Node root;
 
@@ -49,10 +69,14 @@ public class NodeTree {
     }
 
     public NodeTree(String yml, Node root) {
-        this.root = root;
+        this(NodeUtil.buildFromYml(yml, root.getName()), root);
+    }
 
-        // build node tree from yml
-        Node rootFromYml = NodeUtil.buildFromYml(yml, root.getName());
+    /**
+     * Create node tree from parsed yml root node, the step nodes of it will be shared with the tree
+     */
+    public NodeTree(Node rootFromYml, Node root) {
+        this.root = root;
         this.root.setChildren(rootFromYml.getChildren());
 
         // merge yml env to root node
@@ -73,7 +97,7 @@ public class NodeTree {
     }
 
     public Node find(String path) {
-        return treeCache.getIfPresent(path);
+        return nodes.get(path);
     }
 
     /**
@@ -83,13 +107,19 @@ public class NodeTree {
      * @return next node instance or {@code null} if not found
      */
     public Node next(String path) {
-        Node current = find(path);
-        return NodeUtil.next(current, children);
+        int ordinal = ordinal(path);
+        if (ordinal == NOT_FOUND) {
+            return null;
+        }
+        return get(ordinal + 1);
     }
 
     public Node nextFinal(String path) {
-        Node current = find(path);
-        return NodeUtil.nextFinal(current, children);
+        int ordinal = ordinal(path);
+        if (ordinal == NOT_FOUND) {
+            return null;
+        }
+        return get(nextFinals[ordinal]);
     }
 
     /**
@@ -98,8 +128,11 @@ public class NodeTree {
      * @return prev node instance or null if not found
      */
     public Node prev(String path) {
-        Node current = find(path);
-        return NodeUtil.prev(current, children);
+        int ordinal = ordinal(path);
+        if (ordinal == NOT_FOUND) {
+            return null;
+        }
+        return get(ordinal - 1);
     }
 
     /**
@@ -108,42 +141,26 @@ public class NodeTree {
      * @return first node instance or null
      */
     public Node first() {
-        try {
-            return children.getFirst();
-        } catch (NoSuchElementException e) {
-            return null;
-        }
+        return get(0);
     }
 
     /**
      * Get last node from ordered tree
      */
     public Node last() {
-        try {
-            return children.getLast();
-        } catch (NoSuchElementException e) {
-            return null;
-        }
+        return get(children.size() - 1);
     }
 
     /**
      * Get last normal or final node from ordered tree
      */
     public Node last(boolean isFinal) {
-        Node lastFinal = null;
-
-        for (Node node : children) {
-            // find last normal node
-            if (!isFinal && !node.getIsFinal()) {
-                return node;
-            }
-
-            if (node.getIsFinal()) {
-                lastFinal = node;
-            }
+        // find normal node, otherwise the last final node
+        if (!isFinal && firstNormal != NOT_FOUND) {
+            return get(firstNormal);
         }
 
-        return lastFinal;
+        return get(lastFinal);
     }
 
     /**
@@ -157,18 +174,59 @@ public class NodeTree {
     }
 
     public void delete(String path) {
-        treeCache.invalidate(path);
+        nodes.remove(path);
     }
 
     public boolean exist(String path) {
         return find(path) != null;
     }
 
+    /**
+     * Get ordinal in children of existed node, the deleted or root node is NOT_FOUND
+     */
+    private int ordinal(String path) {
+        if (!nodes.containsKey(path)) {
+            return NOT_FOUND;
+        }
+
+        Integer ordinal = ordinals.get(path);
+        return ordinal == null ? NOT_FOUND : ordinal;
+    }
+
+    private Node get(int ordinal) {
+        if (ordinal < 0 || ordinal >= children.size()) {
+            return null;
+        }
+        return children.get(ordinal);
+    }
+
     private void fill(Node root) {
         NodeUtil.recurse(root, node -> {
-            treeCache.put(node.getPath(), node);
-            children.add(node);
+            nodes.put(node.getPath(), node);
+
+            if (node != root) {
+                ordinals.put(node.getPath(), children.size());
+                children.add(node);
+            }
         });
-        children.remove(root);
+
+        nextFinals = new int[children.size()];
+        Arrays.fill(nextFinals, NOT_FOUND);
+
+        int next = NOT_FOUND;
+        for (int i = children.size() - 1; i >= 0; i--) {
+            nextFinals[i] = next;
+
+            Node node = children.get(i);
+            if (node.getIsFinal()) {
+                next = i;
+
+                if (lastFinal == NOT_FOUND) {
+                    lastFinal = i;
+                }
+            } else {
+                firstNormal = i;
+            }
+        }
     }
 }
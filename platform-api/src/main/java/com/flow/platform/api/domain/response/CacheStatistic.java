@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.domain.response;
+
+import com.flow.platform.domain.Jsonable;
+import com.google.common.cache.CacheStats;
+import com.google.gson.annotations.Expose;
+
+/**
+ * Statistics of guava cache
+ *
+ * @author yang
+ */
+public class CacheStatistic extends Jsonable {
+
+    @Expose
+    private String name;
+
+    @Expose
+    private long size;
+
+    @Expose
+    private long hitCount;
+
+    @Expose
+    private long missCount;
+
+    @Expose
+    private double hitRate;
+
+    @Expose
+    private long loadCount;
+
+    @Expose
+    private long evictionCount;
+
+    public CacheStatistic(String name, long size, CacheStats stats) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = stats.hitCount();
+        this.missCount = stats.missCount();
+        this.hitRate = stats.hitRate();
+        this.loadCount = stats.loadCount();
+        this.evictionCount = stats.evictionCount();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+}
@@ -107,6 +107,31 @@ public class SyncEvent extends Jsonable {
             "git checkout " + repo.getTag();
     }
 
+    /**
+     * Script to run in sub shell, the CREATE or UPDATE repo folder will be copied from seed if not exist,
+     * and removed if sync failure
+     *
+     * @param seed other tag of the same repo on agent, or null
+     */
+    public String toScript(SyncRepo seed) {
+        if (syncType != SyncType.CREATE && syncType != SyncType.UPDATE) {
+            return toScript();
+        }
+
+        String folder = repo.toString();
+        StringBuilder script = new StringBuilder("(").append(Unix.LINE_SEPARATOR);
+
+        if (seed != null && !seed.equals(repo)) {
+            script.append("[ -d ").append(folder).append(" ] || cp -r ").append(seed).append(' ').append(folder)
+                .append(Unix.LINE_SEPARATOR);
+        }
+
+        return script.append(toScript())
+            .append(Unix.LINE_SEPARATOR)
+            .append(") || rm -rf ").append(folder)
+            .toString();
+    }
+
     @Override
     public String toString() {
         return "SyncEvent{" +
@@ -26,7 +26,7 @@ import java.util.Queue;
  */
 public class SyncTask {
 
-    public final static SyncTask EMPTY = new SyncTask(null, new LinkedList<>());
+    public final static SyncTask EMPTY = new SyncTask(null, new LinkedList<>(), null);
 
     /**
      * Agent path of sync task
@@ -45,10 +45,22 @@ public class SyncTask {
     @Expose
     private final Queue<SyncEvent> syncQueue;
 
-    public SyncTask(AgentPath path, Queue<SyncEvent> syncQueue) {
+    /**
+     * The script to run all sync events of queue in one cmd
+     */
+    private final String script;
+
+    /**
+     * Status of task, since all sync events run in one cmd the progress cannot be count by event
+     */
+    @Expose
+    private volatile SyncTaskStatus status = SyncTaskStatus.PENDING;
+
+    public SyncTask(AgentPath path, Queue<SyncEvent> syncQueue, String script) {
         this.path = path;
         this.total = syncQueue.size();
         this.syncQueue = syncQueue;
+        this.script = script;
     }
 
     public AgentPath getPath() {
@@ -62,4 +74,16 @@ public class SyncTask {
     public Queue<SyncEvent> getSyncQueue() {
         return syncQueue;
     }
+
+    public String getScript() {
+        return script;
+    }
+
+    public SyncTaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(SyncTaskStatus status) {
+        this.status = status;
+    }
 }
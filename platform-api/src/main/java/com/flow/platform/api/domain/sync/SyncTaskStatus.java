@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.domain.sync;
+
+/**
+ * @author yang
+ */
+public enum SyncTaskStatus {
+
+    /**
+     * Waiting for sync session of agent
+     */
+    PENDING,
+
+    /**
+     * Sync events been sent to agent in one cmd
+     */
+    RUNNING,
+
+    /**
+     * Sync cmd finished, the agent repo list been updated
+     */
+    FINISHED
+}
@@ -33,11 +33,15 @@ public class NodeStatusChangeEvent extends ApplicationEvent {
 
     private final NodeStatus to;
 
-    public NodeStatusChangeEvent(Object source, NodeResultKey resultKey, NodeStatus from, NodeStatus to) {
+    private final Long duration;
+
+    public NodeStatusChangeEvent(Object source, NodeResultKey resultKey, NodeStatus from, NodeStatus to,
+                                 Long duration) {
         super(source);
         this.resultKey = resultKey;
         this.from = from;
         this.to = to;
+        this.duration = duration;
     }
 
     public NodeResultKey getResultKey() {
@@ -51,4 +55,8 @@ public class NodeStatusChangeEvent extends ApplicationEvent {
     public NodeStatus getTo() {
         return to;
     }
+
+    public Long getDuration() {
+        return duration;
+    }
 }
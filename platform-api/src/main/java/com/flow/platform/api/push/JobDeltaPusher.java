@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.push;
+
+import com.flow.platform.api.domain.job.JobDelta;
+import com.flow.platform.core.context.ContextEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesce job deltas per topic within window, only the latest delta of job or node result is pushed
+ *
+ * @author yang
+ */
+public class JobDeltaPusher extends PushHandler implements ContextEvent {
+
+    private final long windowInMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "job-delta-pusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Pending deltas by topic and delta key
+     */
+    private final Map<String, Map<String, JobDelta>> pending = new HashMap<>();
+
+    public JobDeltaPusher(long windowInMillis) {
+        this.windowInMillis = windowInMillis;
+    }
+
+    @Override
+    public void start() {
+        // ignore
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void push(String topic, JobDelta delta) {
+        synchronized (pending) {
+            Map<String, JobDelta> deltas = pending.get(topic);
+
+            // first delta of topic in window, schedule to flush
+            if (deltas == null) {
+                deltas = new LinkedHashMap<>();
+                pending.put(topic, deltas);
+                scheduler.schedule(() -> flush(topic), windowInMillis, TimeUnit.MILLISECONDS);
+            }
+
+            // keep order of latest change
+            deltas.remove(delta.key());
+            deltas.put(delta.key(), delta);
+        }
+    }
+
+    private void flush(String topic) {
+        Map<String, JobDelta> deltas;
+        synchronized (pending) {
+            deltas = pending.remove(topic);
+        }
+
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+
+        push(topic, new ArrayList<>(deltas.values()));
+    }
+}
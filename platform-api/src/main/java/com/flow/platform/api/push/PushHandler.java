@@ -18,6 +18,7 @@ package com.flow.platform.api.push;
 
 import com.flow.platform.core.http.converter.RawGsonMessageConverter;
 import com.flow.platform.domain.Jsonable;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
@@ -37,6 +38,11 @@ public abstract class PushHandler {
         template.convertAndSend(topic, objectInJson);
     }
 
+    public void push(String topic, List<? extends Jsonable> list) {
+        String listInJson = jsonConverter.getGsonForWriter().toJson(list);
+        template.convertAndSend(topic, listInJson);
+    }
+
     public void push(String topic, String raw) {
         template.convertAndSend(topic, raw);
     }
@@ -151,8 +151,9 @@ public class AgentServiceImpl extends ApplicationEventService implements AgentSe
             SyncTask syncTask = syncService.getSyncTask(agent.getPath());
             if (syncTask != null) {
                 AgentItem item = new AgentItem(agent, null);
-                item.setSync(new AgentSync(syncTask.getTotal(), syncTask.getSyncQueue().size()));
+                item.setSync(new AgentSync(syncTask.getTotal(), syncTask.getStatus()));
                 list.add(item);
+                continue;
             }
 
             list.add(new AgentItem(agent, null));
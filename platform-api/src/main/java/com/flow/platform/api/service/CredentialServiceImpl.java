@@ -196,6 +196,7 @@ public class CredentialServiceImpl extends CurrentUser implements CredentialServ
     public void delete(String name) {
         Credential credential = find(name);
         credentialDao.delete(credential);
+        credentialDao.evict(name);
         deleteZipResource(name);
     }
 
@@ -74,6 +74,16 @@ public interface GitService {
      */
     List<String> tags(Node node, boolean refresh);
 
+    /**
+     * Evict cached branches and tags of git repo, ex: git webhook received
+     */
+    void evictRefs(Node node);
+
+    /**
+     * Evict cached git client and refs of flow, ex: flow deleted with its workspace
+     */
+    void evict(Node node);
+
     /**
      * Fetch latest commit from git repo
      *
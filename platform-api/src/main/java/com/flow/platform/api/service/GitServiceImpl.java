@@ -16,6 +16,7 @@
 
 package com.flow.platform.api.service;
 
+import com.flow.platform.api.config.AppConfig;
 import com.flow.platform.api.envs.GitEnvs;
 import com.flow.platform.api.domain.node.Node;
 import com.flow.platform.api.git.GitClientBuilder;
@@ -30,9 +31,15 @@ import com.flow.platform.core.exception.UnsupportedException;
 import com.flow.platform.util.Logger;
 import com.flow.platform.util.git.GitClient;
 import com.flow.platform.util.git.GitException;
+import com.flow.platform.util.git.GitRefCache;
+import com.flow.platform.util.git.GitRefCache.RefLoader;
+import com.flow.platform.util.git.GitRefCache.RefType;
 import com.flow.platform.util.git.JGitUtil;
 import com.flow.platform.util.git.model.GitCommit;
 import com.flow.platform.util.git.model.GitSource;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -42,11 +49,14 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import javax.annotation.PostConstruct;
 import org.eclipse.jgit.lib.ProgressMonitor;
 import org.eclipse.jgit.lib.Repository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueRetrievalException;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 /**
@@ -80,7 +90,22 @@ public class GitServiceImpl implements GitService {
 
     private final static Logger LOGGER = new Logger(GitService.class);
 
-    private final Map<GitSource, Class<? extends GitClientBuilder>> clientBuilderType = new HashMap<>(6);
+    /**
+     * Env variables to identify git client of flow
+     */
+    private final static GitEnvs[] CLIENT_ENVS = {
+        GitEnvs.FLOW_GIT_SOURCE,
+        GitEnvs.FLOW_GIT_URL,
+        GitEnvs.FLOW_GIT_SSH_PRIVATE_KEY,
+        GitEnvs.FLOW_GIT_HTTP_USER,
+        GitEnvs.FLOW_GIT_HTTP_PASS,
+        GitEnvs.FLOW_GITLAB_TOKEN,
+        GitEnvs.FLOW_GITLAB_PROJECT
+    };
+
+    private final Map<GitSource, BiFunction<Node, Path, GitClientBuilder>> clientBuilders = new HashMap<>(6);
+
+    private Cache gitClientCache;
 
     @Autowired
     private Path workspace;
@@ -88,11 +113,19 @@ public class GitServiceImpl implements GitService {
     @Autowired
     private Path gitWorkspace;
 
+    @Autowired
+    private GitRefCache gitRefCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @PostConstruct
     public void init() {
-        clientBuilderType.put(GitSource.UNDEFINED_SSH, GitSshClientBuilder.class);
-        clientBuilderType.put(GitSource.UNDEFINED_HTTP, GitHttpClientBuilder.class);
-        clientBuilderType.put(GitSource.GITLAB, GitLabClientBuilder.class);
+        clientBuilders.put(GitSource.UNDEFINED_SSH, GitSshClientBuilder::new);
+        clientBuilders.put(GitSource.UNDEFINED_HTTP, GitHttpClientBuilder::new);
+        clientBuilders.put(GitSource.GITLAB, GitLabClientBuilder::new);
+
+        gitClientCache = cacheManager.getCache("gitClientCache");
     }
 
     @Override
@@ -134,27 +167,46 @@ public class GitServiceImpl implements GitService {
     }
 
     @Override
-    @Cacheable(value = "git.branches", key = "#node.getPath()", condition = "#refresh == false")
     public List<String> branches(Node node, boolean refresh) {
         GitClient client = gitClientInstance(node);
         try {
-            return client.branches();
+            return refs(node, RefType.BRANCH, refresh, client::branches);
         } catch (GitException e) {
             throw new IllegalStatusException("Cannot load branch list from git: " + e.getMessage());
         }
     }
 
     @Override
-    @Cacheable(value = "git.tags", key = "#node.getPath()", condition = "#refresh == false")
     public List<String> tags(Node node, boolean refresh) {
         GitClient client = gitClientInstance(node);
         try {
-            return client.tags();
+            return refs(node, RefType.TAG, refresh, client::tags);
         } catch (GitException e) {
             throw new IllegalStatusException("Cannot load tag list from git: " + e.getMessage());
         }
     }
 
+    @Override
+    public void evictRefs(Node node) {
+        gitRefCache.invalidate(refCacheKey(node));
+    }
+
+    @Override
+    public void evict(Node node) {
+        evictRefs(node);
+
+        // remove clients of flow with any git settings since key file in workspace will be deleted
+        Object nativeCache = gitClientCache.getNativeCache();
+        if (nativeCache instanceof com.google.common.cache.Cache) {
+            String prefix = node.getPath() + "@";
+            ((com.google.common.cache.Cache<?, ?>) nativeCache).asMap().keySet()
+                .removeIf(key -> key.toString().startsWith(prefix));
+            return;
+        }
+
+        gitClientCache.evict(gitClientKey(node));
+    }
+
     @Override
     public GitCommit latestCommit(Node node) {
         GitClient client = gitClientInstance(node);
@@ -166,6 +218,22 @@ public class GitServiceImpl implements GitService {
         }
     }
 
+    private List<String> refs(Node node, RefType type, boolean refresh, RefLoader loader) throws GitException {
+        String key = refCacheKey(node);
+        if (refresh) {
+            return gitRefCache.refresh(key, type, loader);
+        }
+        return gitRefCache.get(key, type, loader);
+    }
+
+    /**
+     * Refs are cached by flow path and hash of git settings as git client, since flows with the same
+     * git url may have different credentials
+     */
+    private String refCacheKey(Node node) {
+        return gitClientKey(node);
+    }
+
     private void checkRequiredEnv(Node node) {
         if (!EnvUtil.hasRequiredEnvKey(node, REQUIRED_ENVS)) {
             throw new IllegalParameterException("Missing required env variables");
@@ -230,27 +298,35 @@ public class GitServiceImpl implements GitService {
         checkRequiredEnv(node);
 
         GitSource source = GitSource.valueOf(node.getEnv(GitEnvs.FLOW_GIT_SOURCE));
-        Class<? extends GitClientBuilder> builderClass = clientBuilderType.get(source);
-        if (builderClass == null) {
+        BiFunction<Node, Path, GitClientBuilder> builderFactory = clientBuilders.get(source);
+        if (builderFactory == null) {
             throw new UnsupportedException(String.format("Git source %s not supported yet", source));
         }
 
-        GitClientBuilder builder;
+        // reuse git client until flow git settings changed
         try {
-            builder = builderClass
-                .getConstructor(Node.class, Path.class)
-                .newInstance(node, gitSourcePath(node));
-        } catch (Throwable e) {
-            throw new IllegalStatusException("Fail to create GitClientBuilder instance: " + e.getMessage());
+            return gitClientCache.get(gitClientKey(node), () -> {
+                GitClient client = builderFactory.apply(node, gitSourcePath(node)).build();
+                LOGGER.trace("Git client initialized: %s", client);
+                return client;
+            });
+        } catch (ValueRetrievalException e) {
+            if (e.getCause() instanceof GitException) {
+                throw new IllegalStatusException("Unable to init git client for " + source);
+            }
+            throw new IllegalStatusException("Fail to create GitClientBuilder instance: " + e.getCause().getMessage());
         }
+    }
 
-        try {
-            GitClient client = builder.build();
-            LOGGER.trace("Git client initialized: %s", client);
-            return client;
-        } catch (GitException e) {
-            throw new IllegalStatusException("Unable to init git client for " + source);
+    /**
+     * Git client key from flow path and hash of git settings
+     */
+    private String gitClientKey(Node node) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (GitEnvs env : CLIENT_ENVS) {
+            hasher.putString(Strings.nullToEmpty(node.getEnv(env)), AppConfig.DEFAULT_CHARSET).putChar('\n');
         }
+        return node.getPath() + "@" + hasher.hash().toString();
     }
 
     /**
@@ -26,20 +26,29 @@ import com.flow.platform.api.domain.job.JobStatus;
 import com.flow.platform.api.domain.user.User;
 import com.flow.platform.api.service.job.JobService;
 import com.flow.platform.api.service.user.UserFlowService;
+import com.flow.platform.api.util.SmtpTransportPool;
 import com.flow.platform.api.util.SmtpUtil;
+import com.flow.platform.core.context.ContextEvent;
 import com.flow.platform.core.exception.NotFoundException;
+import com.flow.platform.core.util.ThreadUtil;
 import com.flow.platform.util.ExceptionUtil;
 import com.flow.platform.util.Logger;
 import com.flow.platform.util.http.HttpURL;
 import java.io.StringWriter;
 import java.time.ZonedDateTime;
 import java.util.List;
+import javax.annotation.PostConstruct;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -48,10 +57,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Transactional
-public class MessageServiceImpl extends CurrentUser implements MessageService {
+public class MessageServiceImpl extends CurrentUser implements MessageService, ContextEvent {
 
     private final static Logger LOGGER = new Logger(MessageService.class);
 
+    private final static int NOTIFY_POOL_SIZE = 2;
+
+    private final static int NOTIFY_QUEUE_SIZE = 200;
+
+    private final static String NOTIFY_THREAD_NAME_PREFIX = "email-notify-";
+
     private final static String FAILURE_TEMPLATE_SUBJECT = "FlowCi Build Failure";
 
     private final static String SUCCESS_TEMPLATE_SUBJECT = "FlowCi Build Success";
@@ -68,15 +83,46 @@ public class MessageServiceImpl extends CurrentUser implements MessageService {
     @Autowired
     private UserFlowService userFlowService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Value("${domain.web}")
     private String webDomain;
 
+    /**
+     * Dedicated worker to send email out of job status event thread
+     */
+    private final ThreadPoolTaskExecutor notifyExecutor =
+        ThreadUtil.createTaskExecutor(NOTIFY_POOL_SIZE, NOTIFY_POOL_SIZE, NOTIFY_QUEUE_SIZE, NOTIFY_THREAD_NAME_PREFIX);
+
+    /**
+     * Connected smtp transports of current email setting
+     */
+    private volatile SmtpTransportPool transportPool;
+
+    @PostConstruct
+    public void init() {
+        notifyExecutor.initialize();
+    }
+
+    @Override
+    public void start() {
+        // ignore
+    }
+
+    @Override
+    public void stop() {
+        notifyExecutor.shutdown();
+        resetTransportPool();
+    }
+
     @Override
     public SettingContent save(SettingContent t) {
         MessageSetting messageSetting = new MessageSetting(t, ZonedDateTime.now(), ZonedDateTime.now());
         messageSetting.setCreatedBy(currentUser().getEmail());
         if (findSettingByType(t.getType()) == null) {
             messageDao.save(messageSetting);
+            evictSetting(t.getType());
         } else {
             update(t);
         }
@@ -85,17 +131,17 @@ public class MessageServiceImpl extends CurrentUser implements MessageService {
 
     @Override
     public SettingContent find(MessageType type) {
-        if (findSettingByType(type) == null) {
-            return null;
-        }
-
-        return findSettingByType(type).getContent();
+        return settingCache().get(type, () -> {
+            MessageSetting setting = findSettingByType(type);
+            return setting == null ? null : setting.getContent();
+        });
     }
 
     @Override
     public void delete(SettingContent t) {
         MessageSetting messageSetting = findSettingByType(t.getType());
         messageDao.delete(messageSetting);
+        evictSetting(t.getType());
     }
 
     @Override
@@ -108,6 +154,7 @@ public class MessageServiceImpl extends CurrentUser implements MessageService {
         }
         messageSetting.setContent(t);
         messageDao.update(messageSetting);
+        evictSetting(t.getType());
         return t;
     }
 
@@ -130,8 +177,16 @@ public class MessageServiceImpl extends CurrentUser implements MessageService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void sendMessage(Job job, JobStatus jobStatus) {
+        try {
+            notifyExecutor.execute(() -> doSendMessage(job, jobStatus));
+        } catch (TaskRejectedException e) {
+            LOGGER.warnMarker("sendMessage", "Email of job %s been dropped since notify queue is full", job.getId());
+        }
+    }
+
+    private void doSendMessage(Job job, JobStatus jobStatus) {
         LOGGER.traceMarker("sendMessage", "Start to send job %s email", jobStatus);
         EmailSettingContent emailSettingContent = (EmailSettingContent) find(MessageType.EMAIl);
 
@@ -141,34 +196,75 @@ public class MessageServiceImpl extends CurrentUser implements MessageService {
         }
 
         String text = buildEmailTemplate(job, jobStatus);
-        bindModelAndSendMessage(job, emailSettingContent, text, jobStatus);
+        bindModelAndSendMessage(job, transportPool(emailSettingContent), text, jobStatus);
     }
 
     /**
      * bind model and send message all member
      */
-    private void bindModelAndSendMessage(Job job, EmailSettingContent emailSettingContent, String text,
-                                         JobStatus jobStatus) {
+    private void bindModelAndSendMessage(Job job, SmtpTransportPool pool, String text, JobStatus jobStatus) {
+        final String subject = getEmailSubject(jobStatus);
 
-        try {
-            // send email to creator
-            SmtpUtil.sendEmail(emailSettingContent, job.getCreatedBy(), getEmailSubject(jobStatus), text);
-            LOGGER.traceMarker("sendMessage", "send message to %s success", job.getCreatedBy());
+        // send email to creator
+        sendToAcceptor(pool, job.getCreatedBy(), subject, text);
 
-            // send email to member of this flow
+        // send email to member of this flow
+        try {
             List<User> members = userFlowService.list(job.getNodePath());
             for (User member : members) {
-                SmtpUtil.sendEmail(emailSettingContent, member.getEmail(), getEmailSubject(jobStatus), text);
-                LOGGER.traceMarker("sendMessage", "send message to %s success", member.getEmail());
+                sendToAcceptor(pool, member.getEmail(), subject, text);
             }
+        } catch (Throwable e) {
+            LOGGER.traceMarker("sendMessage", "list member of flow error : %s",
+                ExceptionUtil.findRootCause(e).getMessage());
+        }
+    }
 
-            LOGGER.traceMarker("sendMessage", "send message to all member success");
+    /**
+     * Send email to single acceptor, failure will not stop sending to others
+     */
+    private void sendToAcceptor(SmtpTransportPool pool, String acceptor, String subject, String text) {
+        try {
+            pool.send(acceptor, subject, text);
+            LOGGER.traceMarker("sendMessage", "send message to %s success", acceptor);
         } catch (Throwable e) {
-            LOGGER.traceMarker("sendMessage", "send message to all member error : %s",
+            LOGGER.traceMarker("sendMessage", "send message to %s error : %s", acceptor,
                 ExceptionUtil.findRootCause(e).getMessage());
         }
     }
 
+    /**
+     * Get transport pool of email setting, the pool is rebuilt if email setting changed
+     */
+    private synchronized SmtpTransportPool transportPool(EmailSettingContent setting) {
+        if (transportPool != null && transportPool.getSetting() == setting) {
+            return transportPool;
+        }
+
+        resetTransportPool();
+        transportPool = new SmtpTransportPool(setting, NOTIFY_POOL_SIZE);
+        return transportPool;
+    }
+
+    private synchronized void resetTransportPool() {
+        if (transportPool != null) {
+            transportPool.close();
+            transportPool = null;
+        }
+    }
+
+    private void evictSetting(MessageType type) {
+        settingCache().evict(type);
+
+        if (type == MessageType.EMAIl) {
+            resetTransportPool();
+        }
+    }
+
+    private Cache settingCache() {
+        return cacheManager.getCache("messageSettingCache");
+    }
+
     private String getEmailSubject(JobStatus jobStatus) {
         if (Job.FAILURE_STATUS.contains(jobStatus)) {
             return FAILURE_TEMPLATE_SUBJECT;
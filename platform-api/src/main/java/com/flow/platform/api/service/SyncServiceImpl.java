@@ -21,6 +21,7 @@ import com.flow.platform.api.domain.sync.Sync;
 import com.flow.platform.api.domain.sync.SyncEvent;
 import com.flow.platform.api.domain.sync.SyncRepo;
 import com.flow.platform.api.domain.sync.SyncTask;
+import com.flow.platform.api.domain.sync.SyncTaskStatus;
 import com.flow.platform.api.domain.sync.SyncType;
 import com.flow.platform.api.envs.EnvUtil;
 import com.flow.platform.api.service.job.CmdService;
@@ -43,6 +44,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -236,62 +238,38 @@ public class SyncServiceImpl implements SyncService {
             return;
         }
 
-        SyncEvent next = null;
-
         if (cmd.getType() == CmdType.CREATE_SESSION) {
-            if (cmd.getStatus() == CmdStatus.SENT) {
-                // get next sync event but not remove
-                next = task.getSyncQueue().peek();
-            } else {
+            if (cmd.getStatus() != CmdStatus.SENT) {
                 syncTasks.remove(cmd.getAgentPath());
                 LOGGER.trace("Sync task stopped since create session failure for agent: " + cmd.getAgentPath());
                 return;
             }
-        } else if (cmd.getType() == CmdType.RUN_SHELL) {
-            if (Cmd.FINISH_STATUS.contains(cmd.getStatus())) {
-                CmdResult result = cmd.getCmdResult();
-                if (Objects.isNull(result)) {
-                    result = CmdResult.EMPTY;
-                }
-
-                boolean shouldSendBack = false;
-                if (Objects.isNull(result.getExitValue()) || result.getExitValue() != 0) {
-                    shouldSendBack = true;
-                }
-
-                SyncEvent current = task.getSyncQueue().peek();
-
-                Sync sync = syncs.get(cmd.getAgentPath());
-                if (sync != null) {
-                    if (shouldSendBack) {
-                        sync.enqueue(current, DEFAULT_SYNC_QUEUE_PRIORITY);
-                    }
-
-                    // update agent repo list from env FLOW_SYNC_LIST
-                    String repos = result.getOutput().get(SyncEvent.FLOW_SYNC_LIST);
-                    updateAgentRepo(sync, repos);
-                }
 
-                // remove current sync event
-                task.getSyncQueue().remove();
-
-                // set next node whatever the result
-                next = task.getSyncQueue().peek();
-            }
-        }
-
-        // run next sync event
-        if (next != null) {
-            CmdInfo runShell = new CmdInfo(cmd.getAgentPath(), CmdType.RUN_SHELL, next.toScript());
+            // run all sync events of task in one shell cmd
+            CmdInfo runShell = new CmdInfo(cmd.getAgentPath(), CmdType.RUN_SHELL, task.getScript());
             runShell.setWebhook(callbackUrl);
             runShell.setSessionId(cmd.getSessionId());
             runShell.setWorkingDir(AppConfig.DEFAULT_AGENT_REPO_DIR);
             runShell.setOutputEnvFilter(EnvUtil.parseCommaEnvToList(SyncEvent.FLOW_SYNC_LIST));
             cmdService.sendCmd(runShell, false, 0);
+            task.setStatus(SyncTaskStatus.RUNNING);
+            return;
         }
 
-        // delete session when queue is empty
-        if (next == null && task.getSyncQueue().isEmpty()) {
+        if (cmd.getType() == CmdType.RUN_SHELL && Cmd.FINISH_STATUS.contains(cmd.getStatus())) {
+            CmdResult result = cmd.getCmdResult();
+            if (Objects.isNull(result)) {
+                result = CmdResult.EMPTY;
+            }
+
+            Sync sync = syncs.get(cmd.getAgentPath());
+            if (sync != null) {
+                onSyncFinished(sync, task, result.getOutput().get(SyncEvent.FLOW_SYNC_LIST));
+            }
+
+            task.setStatus(SyncTaskStatus.FINISHED);
+
+            // delete session since all sync events been executed
             CmdInfo deleteSession = new CmdInfo(cmd.getAgentPath(), CmdType.DELETE_SESSION, null);
             deleteSession.setWebhook(callbackUrl);
             deleteSession.setSessionId(cmd.getSessionId());
@@ -307,7 +285,8 @@ public class SyncServiceImpl implements SyncService {
         }
 
         // create queue for agent task
-        SyncTask task = new SyncTask(agentPath, buildSyncEventQueueForTask(sync));
+        Queue<SyncEvent> syncQueue = buildSyncEventQueueForTask(sync);
+        SyncTask task = new SyncTask(agentPath, syncQueue, toScript(syncQueue, sync.getRepos()));
         syncTasks.put(agentPath, task);
 
         // create cmd to create sync session with higher priority then job, the extra field record node path
@@ -330,6 +309,39 @@ public class SyncServiceImpl implements SyncService {
         }
     }
 
+    /**
+     * Update agent repo list from listed repos and send back sync events not been applied
+     *
+     * @param sync Sync instance for agent
+     * @param latestReposStr repo raw string, ex: RepoA[v1.0]\nRepoB[v1.0], null if sync cmd failure
+     */
+    private void onSyncFinished(Sync sync, SyncTask task, String latestReposStr) {
+        if (Objects.isNull(latestReposStr)) {
+            for (SyncEvent event : task.getSyncQueue()) {
+                if (event.getSyncType() != SyncType.LIST) {
+                    sync.enqueue(event, DEFAULT_SYNC_QUEUE_PRIORITY);
+                }
+            }
+            return;
+        }
+
+        updateAgentRepo(sync, latestReposStr);
+
+        for (SyncEvent event : task.getSyncQueue()) {
+            SyncType type = event.getSyncType();
+            boolean isSynced = sync.getRepos().contains(event.getRepo());
+
+            if ((type == SyncType.CREATE || type == SyncType.UPDATE) && !isSynced) {
+                sync.enqueue(event, DEFAULT_SYNC_QUEUE_PRIORITY);
+                continue;
+            }
+
+            if (type == SyncType.DELETE && isSynced) {
+                sync.enqueue(event, DEFAULT_SYNC_QUEUE_PRIORITY);
+            }
+        }
+    }
+
     /**
      * Update agent repo list
      *
@@ -337,8 +349,9 @@ public class SyncServiceImpl implements SyncService {
      * @param latestReposStr repo raw string, ex: RepoA[v1.0]\nRepoB[v1.0]
      */
     private void updateAgentRepo(Sync sync, String latestReposStr) {
+        sync.getRepos().clear();
+
         if (Strings.isNullOrEmpty(latestReposStr)) {
-            sync.getRepos().clear();
             return;
         }
 
@@ -354,13 +367,31 @@ public class SyncServiceImpl implements SyncService {
     }
 
     /**
-     * Build sync task from agent sync queue and list agent repos at the last
+     * Build sync task from agent sync queue and list agent repos at the last,
+     * the event will be skipped if repo already synced to agent
      */
     private Queue<SyncEvent> buildSyncEventQueueForTask(Sync sync) {
         Queue<SyncEvent> syncEventQueue = new ConcurrentLinkedQueue<>();
+        Set<SyncRepo> agentRepos = new HashSet<>(sync.getRepos());
 
         SyncEvent event = null;
         while ((event = sync.dequeue()) != null) {
+            SyncType type = event.getSyncType();
+
+            if (type == SyncType.DELETE_ALL) {
+                agentRepos.clear();
+            }
+
+            if (type == SyncType.DELETE) {
+                agentRepos.remove(event.getRepo());
+            }
+
+            if (type == SyncType.CREATE || type == SyncType.UPDATE) {
+                if (!agentRepos.add(event.getRepo())) {
+                    continue;
+                }
+            }
+
             syncEventQueue.add(event);
         }
 
@@ -369,6 +400,44 @@ public class SyncServiceImpl implements SyncService {
         return syncEventQueue;
     }
 
+    /**
+     * Join scripts of sync events to one script, the repo folder will be copied from
+     * other tag of the same repo on agent, so git only pull delta objects
+     *
+     * @param agentRepos repos synced to agent
+     */
+    private String toScript(Collection<SyncEvent> events, Set<SyncRepo> agentRepos) {
+        Map<String, SyncRepo> seeds = new HashMap<>(agentRepos.size());
+        for (SyncRepo repo : agentRepos) {
+            seeds.put(repo.getName(), repo);
+        }
+
+        StringBuilder script = new StringBuilder();
+
+        for (SyncEvent event : events) {
+            SyncType type = event.getSyncType();
+
+            if (type == SyncType.DELETE_ALL) {
+                seeds.clear();
+            }
+
+            if (type == SyncType.DELETE) {
+                seeds.remove(event.getRepo().getName(), event.getRepo());
+            }
+
+            if (type == SyncType.CREATE || type == SyncType.UPDATE) {
+                SyncRepo seed = seeds.get(event.getRepo().getName());
+                script.append(event.toScript(seed)).append(Unix.LINE_SEPARATOR);
+                seeds.put(event.getRepo().getName(), event.getRepo());
+                continue;
+            }
+
+            script.append(event.toScript()).append(Unix.LINE_SEPARATOR);
+        }
+
+        return script.toString();
+    }
+
     private List<SyncEvent> toEvents(Collection<SyncRepo> repos, SyncType syncType) {
         List<SyncEvent> events = new LinkedList<>();
         for (SyncRepo repo : repos) {
@@ -21,6 +21,7 @@ import com.flow.platform.api.domain.job.JobYml;
 import com.flow.platform.api.domain.node.Node;
 import com.flow.platform.api.domain.node.NodeTree;
 import com.flow.platform.api.service.node.NodeService;
+import com.flow.platform.api.service.node.YmlService;
 import com.flow.platform.core.exception.NotFoundException;
 import com.flow.platform.util.Logger;
 import java.math.BigInteger;
@@ -45,6 +46,9 @@ public class JobNodeServiceImpl implements JobNodeService {
     @Autowired
     private NodeService nodeService;
 
+    @Autowired
+    private YmlService ymlService;
+
     @Autowired
     private CacheManager cacheManager;
 
@@ -64,7 +68,7 @@ public class JobNodeServiceImpl implements JobNodeService {
             if (jobYml == null) {
                 return null;
             }
-            return new NodeTree(jobYml.getFile(), flow);
+            return new NodeTree(ymlService.build(flow, jobYml.getFile()), flow);
         });
 
         // cleanup cache if null value
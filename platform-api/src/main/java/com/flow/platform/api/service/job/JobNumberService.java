@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.service.job;
+
+/**
+ * Allocate job build number of flow
+ *
+ * @author yang
+ */
+public interface JobNumberService {
+
+    /**
+     * Get next build number from block reserved in memory, the block is reserved in its own transaction,
+     * so number may have gap if job creation failed
+     *
+     * @param path root path of flow
+     */
+    Long next(String path);
+
+    /**
+     * Get next build number in current transaction, number is rollback with transaction
+     *
+     * @param path root path of flow
+     */
+    Long nextGapFree(String path);
+
+    /**
+     * Drop reserved block of flow, should be called when job number of flow created or deleted
+     */
+    void reset(String path);
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.service.job;
+
+import com.flow.platform.api.dao.job.JobNumberDao;
+import com.flow.platform.api.domain.job.JobNumber;
+import com.flow.platform.core.context.ContextEvent;
+import com.flow.platform.core.exception.IllegalStatusException;
+import com.flow.platform.util.Logger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hi/lo build number allocation, the job_number row is locked once per block instead of once per job
+ *
+ * @author yang
+ */
+@Service
+public class JobNumberServiceImpl implements JobNumberService, ContextEvent {
+
+    private final static Logger LOGGER = new Logger(JobNumberService.class);
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JobNumberDao jobNumberDao;
+
+    @Value("${job.number.block_size}")
+    private Integer blockSize;
+
+    @Override
+    public void start() {
+        // ignore
+    }
+
+    /**
+     * Set build number back if no number reserved by others after block, to avoid gap after restart
+     */
+    @Override
+    public void stop() {
+        for (Block block : blocks.values()) {
+            synchronized (block) {
+                if (!block.hasNext()) {
+                    continue;
+                }
+
+                boolean released = jobNumberDao.release(block.path, block.hi, block.next - 1);
+                LOGGER.trace("Job number block of %s released: %s", block.path, released);
+            }
+        }
+        blocks.clear();
+    }
+
+    @Override
+    public Long next(String path) {
+        if (blockSize <= 1) {
+            return nextGapFree(path);
+        }
+
+        Block block = blocks.computeIfAbsent(path, Block::new);
+
+        synchronized (block) {
+            if (!block.hasNext()) {
+                JobNumber reserved = jobNumberDao.increase(path, blockSize);
+                if (reserved == null) {
+                    throw new IllegalStatusException("Job number not been initialized");
+                }
+
+                block.next = reserved.getNumber() - blockSize + 1;
+                block.hi = reserved.getNumber();
+            }
+
+            return block.next++;
+        }
+    }
+
+    @Override
+    public Long nextGapFree(String path) {
+        JobNumber number = jobNumberDao.increase(path);
+        if (number == null) {
+            throw new IllegalStatusException("Job number not been initialized");
+        }
+        return number.getNumber();
+    }
+
+    @Override
+    public void reset(String path) {
+        blocks.remove(path);
+    }
+
+    private static class Block {
+
+        private final String path;
+
+        /**
+         * Next build number to allocate
+         */
+        private long next = 1;
+
+        /**
+         * Last build number of block
+         */
+        private long hi = 0;
+
+        Block(String path) {
+            this.path = path;
+        }
+
+        boolean hasNext() {
+            return next <= hi;
+        }
+    }
+}
@@ -24,12 +24,10 @@ import static com.flow.platform.api.envs.FlowEnvs.FLOW_YML_STATUS;
 import static com.flow.platform.api.envs.FlowEnvs.StatusValue;
 
 import com.flow.platform.api.dao.job.JobDao;
-import com.flow.platform.api.dao.job.JobNumberDao;
 import com.flow.platform.api.domain.CmdCallbackQueueItem;
 import com.flow.platform.api.domain.EnvObject;
 import com.flow.platform.api.domain.job.Job;
 import com.flow.platform.api.domain.job.JobCategory;
-import com.flow.platform.api.domain.job.JobNumber;
 import com.flow.platform.api.domain.job.JobStatus;
 import com.flow.platform.api.domain.job.NodeResult;
 import com.flow.platform.api.domain.job.NodeStatus;
@@ -76,6 +74,7 @@ import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -115,7 +114,7 @@ public class JobServiceImpl extends ApplicationEventService implements JobServic
     private JobDao jobDao;
 
     @Autowired
-    private JobNumberDao jobNumberDao;
+    private JobNumberService jobNumberService;
 
     @Autowired
     private NodeResultService nodeResultService;
@@ -324,18 +323,13 @@ public class JobServiceImpl extends ApplicationEventService implements JobServic
         }
 
         // increate flow job number
-        JobNumber jobNumber = jobNumberDao.get(root.getPath());
-        if (Objects.isNull(jobNumber)) {
-            throw new IllegalStatusException("Job number not been initialized");
-        }
-
-        jobNumber = jobNumberDao.increase(root.getPath());
+        Long number = jobNumberService.next(root.getPath());
 
         // create job
         Job job = new Job(CommonUtil.randomId());
         job.setNodePath(root.getPath());
         job.setNodeName(root.getName());
-        job.setNumber(jobNumber.getNumber());
+        job.setNumber(number);
         job.setCategory(eventType);
         job.setCreatedBy(creator.getEmail());
         job.setCreatedAt(ZonedDateTime.now());
@@ -372,8 +366,12 @@ public class JobServiceImpl extends ApplicationEventService implements JobServic
             return;
         }
 
+        // load root, prev and current node result in one query
+        Node prev = tree.prev(node.getPath());
+        Map<String, NodeResult> results = findResultsBeforeStart(job, tree.root(), prev, node);
+
         // build all require env variables
-        EnvObject envVars = buildEnvsBeforeStart(node, tree, job);
+        EnvObject envVars = buildEnvsBeforeStart(node, prev, tree, job, results);
 
         // run condition script
         if (!executeConditionScript(job, node, envVars)) {
@@ -389,7 +387,7 @@ public class JobServiceImpl extends ApplicationEventService implements JobServic
 
         // to run node with customized cmd id
         try {
-            NodeResult nodeResult = nodeResultService.find(node.getPath(), job.getId());
+            NodeResult nodeResult = getResult(results, node);
             cmdService.runShell(job, node, nodeResult.getCmdId(), envVars);
         } catch (IllegalStatusException e) {
             CmdInfo rawCmd = (CmdInfo) e.getData();
@@ -398,19 +396,37 @@ public class JobServiceImpl extends ApplicationEventService implements JobServic
         }
     }
 
-    private EnvObject buildEnvsBeforeStart(Node node, NodeTree tree, Job job) {
+    private Map<String, NodeResult> findResultsBeforeStart(Job job, Node... nodes) {
+        Set<String> paths = new HashSet<>(nodes.length);
+        for (Node node : nodes) {
+            if (node != null) {
+                paths.add(node.getPath());
+            }
+        }
+        return nodeResultService.find(job.getId(), paths);
+    }
+
+    private NodeResult getResult(Map<String, NodeResult> results, Node node) {
+        NodeResult result = results.get(node.getPath());
+        if (result == null) {
+            throw new NotFoundException("node result not found");
+        }
+        return result;
+    }
+
+    private EnvObject buildEnvsBeforeStart(Node node, Node prev, NodeTree tree, Job job,
+                                           Map<String, NodeResult> results) {
         // create env vars instance which will pass to agent
         EnvObject envVars = new EnvObject();
         envVars.putAll(job.getEnvs());
 
         // pass root node output to current node
-        NodeResult rootResult = nodeResultService.find(tree.root().getPath(), job.getId());
+        NodeResult rootResult = getResult(results, tree.root());
         envVars.putAll(rootResult.getOutputs());
 
         // pass last step node status
-        Node prev = tree.prev(node.getPath());
         if (prev != null) {
-            NodeResult prevResult = nodeResultService.find(prev.getPath(), job.getId());
+            NodeResult prevResult = results.get(prev.getPath());
             if (prevResult != null) {
                 envVars.putEnv(JobEnvs.FLOW_JOB_LAST_STATUS, prevResult.getStatus().toString());
             }
@@ -21,7 +21,9 @@ import com.flow.platform.api.domain.job.NodeStatus;
 import com.flow.platform.api.domain.node.Node;
 import com.flow.platform.domain.Cmd;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -46,6 +48,13 @@ public interface NodeResultService {
      */
     NodeResult find(BigInteger jobId, Integer stepOrder);
 
+    /**
+     * Find node results of job by node paths in one query
+     *
+     * @return node result map by path, the path not found will not be in map
+     */
+    Map<String, NodeResult> find(BigInteger jobId, Collection<String> paths);
+
     /**
      * List all node results for job
      */
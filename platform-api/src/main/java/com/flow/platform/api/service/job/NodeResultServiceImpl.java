@@ -36,6 +36,8 @@ import com.flow.platform.util.Logger;
 import java.math.BigInteger;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -70,25 +72,22 @@ public class NodeResultServiceImpl extends ApplicationEventService implements No
 
         List<NodeResult> resultList = new ArrayList<>(nodeTree.childrenSize() + 1);
 
-        // save all empty node result for sub nodes
+        // create all empty node result for sub nodes
         int order = 1;
         for (Node node : nodeTree.children()) {
             NodeResult nodeResult = createNodeResult(job, nodeTree, node);
             nodeResult.setOrder(order++);
-
-            nodeResultDao.save(nodeResult);
             resultList.add(nodeResult);
         }
 
-        // save empty node result for root node
+        // create empty node result for root node
         NodeResult rootResult = createNodeResult(job, nodeTree, nodeTree.root());
         rootResult.setOrder(order);
         fillRootResultOutputsFromJob(job, rootResult);
-
-        nodeResultDao.save(rootResult);
         resultList.add(rootResult);
 
-        return resultList;
+        // insert all node results in one transaction with jdbc batch
+        return nodeResultDao.saveAll(resultList);
     }
 
     @Override
@@ -109,6 +108,17 @@ public class NodeResultServiceImpl extends ApplicationEventService implements No
         return nodeResult;
     }
 
+    @Override
+    public Map<String, NodeResult> find(BigInteger jobId, Collection<String> paths) {
+        List<NodeResult> list = nodeResultDao.list(jobId, paths);
+
+        Map<String, NodeResult> results = new HashMap<>(list.size());
+        for (NodeResult result : list) {
+            results.put(result.getKey().getPath(), result);
+        }
+        return results;
+    }
+
     @Override
     public List<NodeResult> list(Job job, boolean childrenOnly) {
         List<NodeResult> list = nodeResultDao.list(job.getId());
@@ -153,7 +163,8 @@ public class NodeResultServiceImpl extends ApplicationEventService implements No
         updateParent(job, node);
 
         if (originStatus != newStatus) {
-            this.dispatchEvent(new NodeStatusChangeEvent(this, currentResult.getKey(), originStatus, newStatus));
+            this.dispatchEvent(new NodeStatusChangeEvent(this, currentResult.getKey(), originStatus, newStatus,
+                currentResult.getDuration()));
         }
 
         return currentResult;
@@ -178,7 +189,8 @@ public class NodeResultServiceImpl extends ApplicationEventService implements No
 
         nodeResult.setStatus(targetStatus);
         nodeResultDao.update(nodeResult);
-        this.dispatchEvent(new NodeStatusChangeEvent(this, nodeResult.getKey(), originStatus, targetStatus));
+        this.dispatchEvent(new NodeStatusChangeEvent(this, nodeResult.getKey(), originStatus, targetStatus,
+            nodeResult.getDuration()));
     }
 
     /**
@@ -28,7 +28,6 @@ import com.flow.platform.api.envs.JobEnvs;
 import com.flow.platform.api.envs.handler.EnvHandler;
 import com.flow.platform.core.context.SpringContext;
 import com.flow.platform.core.exception.IllegalOperationException;
-import com.flow.platform.util.ObjectUtil;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.util.HashMap;
@@ -110,8 +109,9 @@ public class EnvServiceImpl implements EnvService {
             verifyWhenAdd(envs);
         }
 
-        // make copy of node since do not effect the node in cache
-        Node copy = ObjectUtil.deepCopy(node);
+        // make copy of node since do not effect the node in cache, env handler only deal with path and envs
+        Node copy = new Node(node.getPath(), node.getName());
+        copy.putAll(node.getEnvs());
         EnvUtil.merge(envs, copy.getEnvs(), true);
 
         // handle envs before save
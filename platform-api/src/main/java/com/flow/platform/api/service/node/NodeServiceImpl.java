@@ -35,7 +35,9 @@ import com.flow.platform.api.envs.GitEnvs;
 import com.flow.platform.api.envs.GitToggleEnvs;
 import com.flow.platform.api.exception.YmlException;
 import com.flow.platform.api.service.CurrentUser;
+import com.flow.platform.api.service.GitService;
 import com.flow.platform.api.service.SyncService;
+import com.flow.platform.api.service.job.JobNumberService;
 import com.flow.platform.api.service.job.JobService;
 import com.flow.platform.api.service.user.RoleService;
 import com.flow.platform.api.service.user.UserFlowService;
@@ -97,12 +99,18 @@ public class NodeServiceImpl extends CurrentUser implements NodeService {
     @Autowired
     private JobNumberDao jobNumberDao;
 
+    @Autowired
+    private JobNumberService jobNumberService;
+
     @Autowired
     private UserFlowService userFlowService;
 
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private GitService gitService;
+
     @Autowired
     private RoleService roleService;
 
@@ -198,6 +206,7 @@ public class NodeServiceImpl extends CurrentUser implements NodeService {
 
         // delete job number
         jobNumberDao.delete(new JobNumber(path));
+        jobNumberService.reset(path);
 
         // delete flow
         flowDao.delete(flow);
@@ -205,6 +214,9 @@ public class NodeServiceImpl extends CurrentUser implements NodeService {
         // delete related yml storage
         ymlService.delete(flow);
 
+        // evict git client and refs since ssh key in flow folder will be deleted
+        gitService.evict(flow);
+
         // delete local flow folder
         Path flowWorkspace = NodeUtil.workspacePath(workspace, flow);
         FileSystemUtils.deleteRecursively(flowWorkspace.toFile());
@@ -249,6 +261,7 @@ public class NodeServiceImpl extends CurrentUser implements NodeService {
 
         // init job number for flow
         jobNumberDao.save(new JobNumber(flow.getPath(), 0L));
+        jobNumberService.reset(flow.getPath());
 
         userFlowService.assign(currentUser(), flow);
         return flow;
@@ -356,7 +369,7 @@ public class NodeServiceImpl extends CurrentUser implements NodeService {
             try {
                 // has related yml
                 if (ymlStorage != null) {
-                    return new NodeTree(ymlStorage.getFile(), flow);
+                    return new NodeTree(ymlService.build(flow, ymlStorage.getFile()), flow);
                 }
 
                 if (flow != null) {
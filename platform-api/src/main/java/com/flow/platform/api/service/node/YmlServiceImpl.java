@@ -35,14 +35,19 @@ import com.flow.platform.core.util.ThreadUtil;
 import com.flow.platform.util.Logger;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.task.TaskRejectedException;
@@ -79,6 +84,9 @@ public class YmlServiceImpl implements YmlService, ContextEvent {
     @Autowired
     private YmlDao ymlDao;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
     public void start() {
         // ignore
@@ -97,7 +105,18 @@ public class YmlServiceImpl implements YmlService, ContextEvent {
 
     @Override
     public Node build(final Node root, final String yml) {
-        return NodeUtil.buildFromYml(yml, root.getName());
+        final org.springframework.cache.Cache cache = cacheManager.getCache("ymlNodeCache");
+        final String key = ymlKey(root.getName(), yml);
+
+        ValueWrapper wrapper = cache.get(key);
+        Node parsed = wrapper == null ? null : (Node) wrapper.get();
+
+        if (parsed == null) {
+            parsed = NodeUtil.buildFromYml(yml, root.getName());
+            cache.put(key, parsed);
+        }
+
+        return copyRoot(parsed);
     }
 
     @Override
@@ -199,6 +218,39 @@ public class YmlServiceImpl implements YmlService, ContextEvent {
         nodeThreadPool.invalidateAll();
     }
 
+    /**
+     * Cache key of parsed yml, the root name is included since node path built from it
+     */
+    private static String ymlKey(String rootName, String yml) {
+        return rootName + "@" + Hashing.sha256().hashString(yml, AppConfig.DEFAULT_CHARSET).toString();
+    }
+
+    /**
+     * Copy node tree from cached parsed yml, the cached nodes are never shared with flow or job tree
+     */
+    private static Node copyRoot(Node parsed) {
+        Node root = copyNode(parsed);
+        NodeUtil.buildNodeRelation(root);
+        return root;
+    }
+
+    private static Node copyNode(Node source) {
+        Node node = new Node(source.getPath(), source.getName());
+        node.setScript(source.getScript());
+        node.setConditionScript(source.getConditionScript());
+        node.setPlugin(source.getPlugin());
+        node.setAllowFailure(source.getAllowFailure());
+        node.setIsFinal(source.getIsFinal());
+        node.putAll(source.getEnvs());
+
+        List<Node> children = new LinkedList<>();
+        for (Node child : source.getChildren()) {
+            children.add(copyNode(child));
+        }
+        node.setChildren(children);
+        return node;
+    }
+
     private boolean isYmlLoading(final Node node) {
         String ymlStatus = node.getEnv(FlowEnvs.FLOW_YML_STATUS);
         return YmlStatusValue.isLoadingStatus(ymlStatus);
@@ -73,11 +73,13 @@ public class UserFlowServiceImpl extends CurrentUser implements UserFlowService
     @Override
     public void unAssign(User user) {
         userFlowDao.deleteByEmail(user.getEmail());
+        userFlowDao.evictAll();
     }
 
     @Override
     public void unAssign(Node flow) {
         userFlowDao.deleteByFlowPath(flow.getPath());
+        userFlowDao.evictAll();
     }
 
     @Override
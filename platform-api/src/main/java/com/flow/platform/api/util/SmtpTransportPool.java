@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.util;
+
+import com.flow.platform.api.domain.EmailSettingContent;
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+/**
+ * Pool of connected smtp transport for one email setting, to send messages without reconnect every time
+ *
+ * @author yang
+ */
+public class SmtpTransportPool implements Closeable {
+
+    private final EmailSettingContent setting;
+
+    private final Session session;
+
+    private final BlockingQueue<Transport> idle;
+
+    private volatile boolean isClosed = false;
+
+    public SmtpTransportPool(EmailSettingContent setting, int size) {
+        this(setting, SmtpUtil.createSession(setting), size);
+    }
+
+    public SmtpTransportPool(EmailSettingContent setting, Session session, int size) {
+        this.setting = setting;
+        this.session = session;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    public EmailSettingContent getSetting() {
+        return setting;
+    }
+
+    public void send(String acceptor, String subject, String body) throws MessagingException {
+        Transport transport = borrow();
+        boolean isSent = false;
+
+        try {
+            MimeMessage message = SmtpUtil.buildMessage(session, setting.getSender(), acceptor, subject, body);
+            transport.sendMessage(message, message.getAllRecipients());
+            isSent = true;
+        } finally {
+            // transport state is unknown if failed
+            if (isSent && !isClosed && idle.offer(transport)) {
+                transport = null;
+            }
+
+            if (transport != null) {
+                closeQuietly(transport);
+            }
+        }
+    }
+
+    public int numOfIdle() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private Transport borrow() throws MessagingException {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            if (transport.isConnected()) {
+                return transport;
+            }
+            closeQuietly(transport);
+        }
+
+        String username = null;
+        String password = null;
+        if (setting.isAuthenticated()) {
+            username = setting.getUsername();
+            password = setting.getPassword();
+        }
+
+        transport = session.getTransport("smtp");
+        transport.connect(setting.getSmtpUrl(), setting.getSmtpPort(), username, password);
+        return transport;
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException ignore) {
+        }
+    }
+}
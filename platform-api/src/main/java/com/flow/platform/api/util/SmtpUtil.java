@@ -20,6 +20,7 @@ import com.flow.platform.api.domain.EmailSettingContent;
 import java.util.Properties;
 import javax.mail.Authenticator;
 import javax.mail.Message;
+import javax.mail.MessagingException;
 import javax.mail.PasswordAuthentication;
 import javax.mail.Session;
 import javax.mail.Transport;
@@ -32,9 +33,20 @@ import javax.mail.internet.MimeMessage;
 public class SmtpUtil {
 
     public static void sendEmail(EmailSettingContent emailSetting, String acceptor, String subject, String body) {
+        Session session = createSession(emailSetting);
+        try {
+            Transport.send(buildMessage(session, emailSetting.getSender(), acceptor, subject, body));
+        } catch (Throwable throwable) {
+        }
+    }
+
+    /**
+     * Create mail session from email setting, the session can be shared by all messages of the setting
+     */
+    public static Session createSession(EmailSettingContent emailSetting) {
         Properties props = buildProperty(emailSetting);
 
-        Session session = Session.getInstance(props, new Authenticator() {
+        return Session.getInstance(props, new Authenticator() {
             @Override
             protected PasswordAuthentication getPasswordAuthentication() {
                 String username = null;
@@ -46,19 +58,17 @@ public class SmtpUtil {
                 return new PasswordAuthentication(username, password);
             }
         });
-        try {
-
-            MimeMessage message = new MimeMessage(session);
-            message.setFrom(new InternetAddress(emailSetting.getSender()));
-            message.setRecipients(Message.RecipientType.TO,
-                InternetAddress.parse(acceptor));
+    }
 
-            message.setSubject(subject, "utf8");
-            message.setContent(body, "text/html;charset=utf8");
-            Transport.send(message);
+    public static MimeMessage buildMessage(Session session, String sender, String acceptor, String subject, String body)
+        throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(sender));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(acceptor));
 
-        } catch (Throwable throwable) {
-        }
+        message.setSubject(subject, "utf8");
+        message.setContent(body, "text/html;charset=utf8");
+        return message;
     }
 
     /**
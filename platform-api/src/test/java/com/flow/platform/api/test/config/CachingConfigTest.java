@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.test.config;
+
+import com.flow.platform.api.config.CachingConfig;
+import com.flow.platform.api.domain.node.Node;
+import com.flow.platform.api.domain.node.NodeTree;
+import com.google.common.cache.Cache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class CachingConfigTest {
+
+    @Test
+    public void should_limit_tree_cache_by_num_of_node() {
+        Cache<Object, Object> cache = CachingConfig.createCacheBuilder("treeCache").build();
+
+        Node root = new Node("flow", "flow");
+        for (int i = 0; i < 10; i++) {
+            cache.put("flow-" + i, new NodeTree(root));
+        }
+
+        cache.getIfPresent("flow-0");
+        cache.getIfPresent("not-exist");
+
+        Assert.assertEquals(10, cache.size());
+        Assert.assertEquals(1, cache.stats().hitCount());
+        Assert.assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void should_evict_tree_cache_over_max_num_of_node() {
+        Cache<Object, Object> cache = CachingConfig.createCacheBuilder("treeCache").build();
+
+        // when: put 30 trees with 1000 nodes which over max weight 20000
+        for (int i = 0; i < 30; i++) {
+            Node root = new Node("flow-" + i, "flow-" + i);
+            for (int j = 0; j < 999; j++) {
+                root.getChildren().add(new Node(root.getPath() + "/step-" + j, "step-" + j));
+            }
+            cache.put(root.getPath(), new NodeTree(root));
+        }
+
+        // then: evicted by num of node instead of num of tree
+        Assert.assertTrue(cache.size() <= 20);
+        Assert.assertTrue(cache.stats().evictionCount() >= 10);
+    }
+
+    @Test
+    public void should_use_default_spec_for_undefined_cache() {
+        Cache<Object, Object> cache = CachingConfig.createCacheBuilder("undefined").build();
+        for (int i = 0; i < 200; i++) {
+            cache.put(i, i);
+        }
+
+        Assert.assertEquals(100, cache.size());
+        Assert.assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    public void should_create_cache_by_spec_from_property() {
+        Cache<Object, Object> cache = CachingConfig.createCacheBuilder("gitClientCache", "maximumSize=5").build();
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+
+        Assert.assertEquals(5, cache.size());
+        Assert.assertEquals("maximumSize=200,expireAfterAccess=30m,recordStats",
+            CachingConfig.defaultSpec("gitClientCache"));
+    }
+}
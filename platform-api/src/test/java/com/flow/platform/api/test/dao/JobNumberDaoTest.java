@@ -55,4 +55,28 @@ public class JobNumberDaoTest extends TestBase {
         Assert.assertNotNull(increased);
         Assert.assertEquals(2L, increased.getNumber().longValue());
     }
+
+    @Test
+    public void should_reserve_block_of_job_number_and_release() {
+        // given:
+        String nodePath = "flow/path-block";
+        jobNumberDao.save(new JobNumber(nodePath));
+
+        // when: reserve 10 numbers
+        JobNumber reserved = jobNumberDao.increase(nodePath, 10);
+        Assert.assertEquals(10L, reserved.getNumber().longValue());
+
+        // then: release to 3 since 3 numbers been used
+        Assert.assertTrue(jobNumberDao.release(nodePath, 10, 3));
+        Assert.assertEquals(3L, jobNumberDao.get(nodePath).getNumber().longValue());
+
+        // then: cannot release if number changed by others
+        Assert.assertFalse(jobNumberDao.release(nodePath, 10, 5));
+        Assert.assertEquals(4L, jobNumberDao.increase(nodePath).getNumber().longValue());
+    }
+
+    @Test
+    public void should_return_null_if_job_number_not_initialized() {
+        Assert.assertNull(jobNumberDao.increase("flow/path-not-exist", 10));
+    }
 }
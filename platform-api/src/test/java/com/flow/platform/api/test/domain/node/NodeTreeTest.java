@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.test.domain.node;
+
+import com.flow.platform.api.domain.node.Node;
+import com.flow.platform.api.domain.node.NodeTree;
+import com.flow.platform.api.util.NodeUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class NodeTreeTest {
+
+    private NodeTree tree;
+
+    @Before
+    public void init() {
+        Node flow = new Node("flow", "flow");
+        Node step1 = new Node(null, "step1");
+        Node step11 = new Node(null, "step11");
+        Node step12 = new Node(null, "step12");
+        Node step2 = new Node(null, "step2");
+        Node step3 = new Node(null, "step3");
+        Node step4 = new Node(null, "step4");
+        step3.setIsFinal(true);
+        step4.setIsFinal(true);
+
+        step1.getChildren().add(step11);
+        step1.getChildren().add(step12);
+        flow.getChildren().add(step1);
+        flow.getChildren().add(step2);
+        flow.getChildren().add(step3);
+        flow.getChildren().add(step4);
+        NodeUtil.buildNodeRelation(flow);
+
+        tree = new NodeTree(flow);
+    }
+
+    @Test
+    public void should_navigate_by_ordered_children() {
+        Assert.assertEquals(6, tree.childrenSize());
+        Assert.assertEquals("flow/step1/step11", tree.first().getPath());
+        Assert.assertEquals("flow/step4", tree.last().getPath());
+
+        Assert.assertEquals("flow/step1/step12", tree.next("flow/step1/step11").getPath());
+        Assert.assertEquals("flow/step1", tree.next("flow/step1/step12").getPath());
+        Assert.assertEquals("flow/step1/step12", tree.prev("flow/step1").getPath());
+        Assert.assertNull(tree.prev("flow/step1/step11"));
+        Assert.assertNull(tree.next("flow/step4"));
+
+        // root node is not in ordered children
+        Assert.assertNotNull(tree.find("flow"));
+        Assert.assertNull(tree.next("flow"));
+        Assert.assertNull(tree.prev("flow"));
+    }
+
+    @Test
+    public void should_find_final_node() {
+        Assert.assertEquals("flow/step3", tree.nextFinal("flow/step1/step11").getPath());
+        Assert.assertEquals("flow/step4", tree.nextFinal("flow/step3").getPath());
+        Assert.assertNull(tree.nextFinal("flow/step4"));
+
+        Assert.assertEquals("flow/step1/step11", tree.last(false).getPath());
+        Assert.assertEquals("flow/step4", tree.last(true).getPath());
+    }
+
+    @Test
+    public void should_not_navigate_from_deleted_node() {
+        tree.delete("flow/step2");
+
+        Assert.assertFalse(tree.exist("flow/step2"));
+        Assert.assertNull(tree.next("flow/step2"));
+        Assert.assertNull(tree.prev("flow/step2"));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.test.push;
+
+import com.flow.platform.api.domain.job.JobDelta;
+import com.flow.platform.api.push.JobDeltaPusher;
+import com.flow.platform.domain.Jsonable;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class JobDeltaPusherTest {
+
+    private final Map<String, List<? extends Jsonable>> pushed = new ConcurrentHashMap<>();
+
+    private final CountDownLatch latch = new CountDownLatch(2);
+
+    private final JobDeltaPusher pusher = new JobDeltaPusher(200) {
+        @Override
+        public void push(String topic, List<? extends Jsonable> list) {
+            pushed.put(topic, list);
+            latch.countDown();
+        }
+    };
+
+    @After
+    public void after() {
+        pusher.stop();
+    }
+
+    @Test
+    public void should_coalesce_deltas_per_topic() throws Throwable {
+        BigInteger jobId = BigInteger.ONE;
+
+        // when: node result status changed twice and job status changed in window
+        pusher.push("/topic/job-delta/flow", new JobDelta(jobId, "flow", "flow/step1", "PENDING", "RUNNING", 0L));
+        pusher.push("/topic/job-delta/flow", new JobDelta(jobId, "flow", null, "CREATED", "RUNNING", null));
+        pusher.push("/topic/job-delta/flow", new JobDelta(jobId, "flow", "flow/step1", "RUNNING", "SUCCESS", 10L));
+        pusher.push("/topic/job-delta/other", new JobDelta(BigInteger.TEN, "other", null, "CREATED", "RUNNING", null));
+
+        // then: one frame per topic with the latest delta of each node
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, pushed.size());
+
+        List<? extends Jsonable> deltas = pushed.get("/topic/job-delta/flow");
+        Assert.assertEquals(2, deltas.size());
+
+        JobDelta jobDelta = (JobDelta) deltas.get(0);
+        Assert.assertNull(jobDelta.getPath());
+        Assert.assertEquals("RUNNING", jobDelta.getTo());
+
+        JobDelta nodeDelta = (JobDelta) deltas.get(1);
+        Assert.assertEquals("flow/step1", nodeDelta.getPath());
+        Assert.assertEquals("SUCCESS", nodeDelta.getTo());
+        Assert.assertEquals(10L, nodeDelta.getDuration().longValue());
+
+        Assert.assertEquals(1, pushed.get("/topic/job-delta/other").size());
+    }
+}
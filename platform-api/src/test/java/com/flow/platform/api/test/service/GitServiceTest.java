@@ -29,6 +29,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
@@ -39,6 +40,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.util.FileSystemUtils;
 
 /**
@@ -55,6 +58,9 @@ public class GitServiceTest extends TestBase {
     @Autowired
     private Path gitWorkspace;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private Node node;
 
     @Before
@@ -148,6 +154,45 @@ public class GitServiceTest extends TestBase {
         Assert.assertNotNull(tags);
     }
 
+    @Test
+    public void should_reuse_git_client_until_git_settings_changed() throws Throwable {
+        // given: flow with local git repo
+        URL resource = TestBase.class.getClassLoader().getResource("hello.git");
+        Node flow = new Node("flow_client", "flow_client");
+        flow.putEnv(GitEnvs.FLOW_GIT_SOURCE, GitSource.UNDEFINED_HTTP.name());
+        flow.putEnv(GitEnvs.FLOW_GIT_URL, new File(resource.getFile()).toURI().toString());
+        flow.putEnv(GitEnvs.FLOW_GIT_HTTP_USER, "user");
+        flow.putEnv(GitEnvs.FLOW_GIT_HTTP_PASS, "pass");
+
+        Cache cache = cacheManager.getCache("gitClientCache");
+        cache.clear();
+        Map<?, ?> clients = ((com.google.common.cache.Cache<?, ?>) cache.getNativeCache()).asMap();
+
+        // when: load tags twice with the same settings
+        Assert.assertTrue(gitService.tags(flow, false).contains("v1.0"));
+        Object client = clients.values().iterator().next();
+        gitService.tags(flow, true);
+
+        // then: the same client should be reused
+        Assert.assertEquals(1, clients.size());
+        Assert.assertSame(client, clients.values().iterator().next());
+
+        // when: credential changed
+        flow.putEnv(GitEnvs.FLOW_GIT_HTTP_PASS, "new-pass");
+        gitService.tags(flow, false);
+
+        // then: new client should be built
+        List<Object> built = new ArrayList<>(clients.values());
+        Assert.assertEquals(2, built.size());
+        Assert.assertNotSame(built.get(0), built.get(1));
+
+        // when: flow deleted
+        gitService.evict(flow);
+
+        // then: all clients of flow should be evicted
+        Assert.assertEquals(0, clients.size());
+    }
+
     @After
     public void after() throws Throwable {
         FileSystemUtils.deleteRecursively(workspace.toFile());
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.test.service;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.flow.platform.api.dao.job.JobNumberDao;
+import com.flow.platform.api.domain.job.JobNumber;
+import com.flow.platform.api.service.job.JobNumberServiceImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author yang
+ */
+public class JobNumberServiceTest {
+
+    private final static String PATH = "flow-block";
+
+    private final JobNumberDao jobNumberDao = mock(JobNumberDao.class);
+
+    private final JobNumberServiceImpl jobNumberService = new JobNumberServiceImpl();
+
+    @Before
+    public void init() {
+        ReflectionTestUtils.setField(jobNumberService, "jobNumberDao", jobNumberDao);
+        ReflectionTestUtils.setField(jobNumberService, "blockSize", 5);
+    }
+
+    @Test
+    public void should_allocate_number_from_reserved_block() {
+        // given: db reserve block 1 - 5 and 6 - 10
+        when(jobNumberDao.increase(eq(PATH), eq(5L)))
+            .thenReturn(numberOf(5L))
+            .thenReturn(numberOf(10L));
+
+        // when: allocate 6 numbers
+        for (long expected = 1; expected <= 6; expected++) {
+            Assert.assertEquals(expected, jobNumberService.next(PATH).longValue());
+        }
+
+        // then: db only accessed once per block
+        verify(jobNumberDao, times(2)).increase(eq(PATH), eq(5L));
+    }
+
+    @Test
+    public void should_release_unused_numbers_of_block_on_stop() {
+        when(jobNumberDao.increase(eq(PATH), eq(5L))).thenReturn(numberOf(5L));
+        when(jobNumberDao.release(PATH, 5L, 2L)).thenReturn(true);
+
+        Assert.assertEquals(1L, jobNumberService.next(PATH).longValue());
+        Assert.assertEquals(2L, jobNumberService.next(PATH).longValue());
+
+        // when: stop with 3 numbers not used
+        jobNumberService.stop();
+
+        // then: number set back to last allocated
+        verify(jobNumberDao).release(PATH, 5L, 2L);
+    }
+
+    private static JobNumber numberOf(Long number) {
+        JobNumber jobNumber = new JobNumber(PATH);
+        jobNumber.setNumber(number);
+        return jobNumber;
+    }
+}
@@ -32,9 +32,11 @@ import com.flow.platform.api.test.TestBase;
 import com.flow.platform.domain.Cmd;
 import com.flow.platform.domain.CmdResult;
 import com.flow.platform.domain.CmdStatus;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -78,6 +80,21 @@ public class NodeResultServiceTest extends TestBase {
         Assert.assertEquals(NodeTag.FLOW, rootNodeResult.getNodeTag());
     }
 
+    @Test
+    public void should_find_node_results_by_paths() throws IOException {
+        Node rootForFlow = createRootFlow("flow1", "yml/flow.yaml");
+        Job job = jobService.createFromFlowYml(rootForFlow.getPath(), JobCategory.MANUAL, null, mockUser);
+
+        // when: find node results of root, exist step and not exist step
+        Map<String, NodeResult> results = nodeResultService
+            .find(job.getId(), ImmutableList.of("flow1", "flow1/step1", "flow1/not-exist"));
+
+        // then: only exist node result in map
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals(NodeTag.FLOW, results.get("flow1").getNodeTag());
+        Assert.assertEquals(NodeTag.STEP, results.get("flow1/step1").getNodeTag());
+    }
+
     @Test
     public void should_correct_update_node_status_from_cmd() throws Throwable {
         // given: create job
@@ -73,6 +73,27 @@ public class NodeServiceTest extends TestBase {
     @Autowired
     private PluginService pluginService;
 
+    @Test
+    public void should_share_parsed_step_nodes_for_same_yml() throws Throwable {
+        Node flow = nodeService.createEmptyFlow("flow-share");
+        String yml = getResourceContent("yml/demo_flow.yaml");
+
+        // when: build twice from the same yml content
+        Node first = ymlService.build(flow, yml);
+        Node second = ymlService.build(flow, yml);
+
+        // then: root node is copied but step nodes are shared
+        Assert.assertNotSame(first, second);
+        Assert.assertNotSame(first.getChildren(), second.getChildren());
+        Assert.assertSame(first.getChildren().get(0), second.getChildren().get(0));
+
+        // when: change children of root
+        first.getChildren().clear();
+
+        // then: cached yml node should not be changed
+        Assert.assertFalse(ymlService.build(flow, yml).getChildren().isEmpty());
+    }
+
     @Test
     public void should_find_any_node() throws Throwable {
         Node emptyFlow = nodeService.createEmptyFlow("flow1");
@@ -26,6 +26,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import com.flow.platform.api.domain.sync.Sync;
 import com.flow.platform.api.domain.sync.SyncEvent;
 import com.flow.platform.api.domain.sync.SyncRepo;
+import com.flow.platform.api.domain.sync.SyncTaskStatus;
 import com.flow.platform.api.domain.sync.SyncType;
 import com.flow.platform.api.service.SyncService;
 import com.flow.platform.api.test.TestBase;
@@ -112,6 +113,14 @@ public class SyncServiceTest extends TestBase {
         // test list event script
         SyncEvent listEvent = new SyncEvent(null, null, SyncType.LIST);
         Assert.assertEquals("export FLOW_SYNC_LIST=\"$(ls)\"", listEvent.toScript());
+
+        // test create event script in sub shell with seed repo
+        script = "(\n"
+            + "[ -d hello[v1.0] ] || cp -r hello[v0.9] hello[v1.0]\n"
+            + createEvent.toScript() + "\n"
+            + ") || rm -rf hello[v1.0]";
+        Assert.assertEquals(script, createEvent.toScript(new SyncRepo("hello", "v0.9")));
+        Assert.assertEquals("rm -rf hello[v1.0]", deleteEvent.toScript(new SyncRepo("hello", "v0.9")));
     }
 
     @Test
@@ -193,41 +202,33 @@ public class SyncServiceTest extends TestBase {
         mockSessionCallback.setSessionId(createSessionCmdResponse.getSessionId());
         syncService.onCallback(mockSessionCallback);
 
-        // then: send run shell cmd for sync event and sync task queue size not changed
+        // then: send one run shell cmd for all sync events and sync task is running
         strategy = new CountMatchingStrategy(CountMatchingStrategy.EQUAL_TO, 1);
         verify(strategy, postRequestedFor(urlEqualTo("/cmd/send")));
         Assert.assertEquals(2, syncService.getSyncTask(agent).getSyncQueue().size());
+        Assert.assertEquals(SyncTaskStatus.RUNNING, syncService.getSyncTask(agent).getStatus());
+        Assert.assertTrue(syncService.getSyncTask(agent).getScript().endsWith("export FLOW_SYNC_LIST=\"$(ls)\"\n"));
 
-        // when: mock cmd been executed
+        // when: mock sync cmd been executed and hello repo not been synced
         Cmd mockRunShellSuccess = new Cmd(agent.getZone(), agent.getName(), CmdType.RUN_SHELL, "git pull xxx");
         mockRunShellSuccess.setSessionId(mockSessionCallback.getSessionId());
         mockRunShellSuccess.setStatus(CmdStatus.LOGGED);
         mockRunShellSuccess.setCmdResult(new CmdResult(0));
+        mockRunShellSuccess.getCmdResult().getOutput().put(SyncEvent.FLOW_SYNC_LIST, "A[v1]\nB[v2]");
         syncService.onCallback(mockRunShellSuccess);
 
-        // then: should send list repos cmd and sync task queue size should be 1
-        strategy = new CountMatchingStrategy(CountMatchingStrategy.EQUAL_TO, 2);
-        verify(strategy, postRequestedFor(urlEqualTo("/cmd/send")));
-        Assert.assertEquals(1, syncService.getSyncTask(agent).getSyncQueue().size());
-
-        // when: mock list cmd been executed
-        Cmd mockListRepoSuccess =
-            new Cmd(agent.getZone(), agent.getName(), CmdType.RUN_SHELL, "export FLOW_SYNC_LIST=$(ls)");
-        mockListRepoSuccess.setSessionId(mockSessionCallback.getSessionId());
-        mockListRepoSuccess.setStatus(CmdStatus.LOGGED);
-        mockListRepoSuccess.setCmdResult(new CmdResult(0));
-        mockListRepoSuccess.getCmdResult().getOutput().put(SyncEvent.FLOW_SYNC_LIST, "A[v1]\nB[v2]");
-        syncService.onCallback(mockListRepoSuccess);
-
         // then: agent repo list size should be 2
         Assert.assertEquals(2, syncService.get(agent).getRepos().size());
         Assert.assertTrue(syncService.get(agent).getRepos().contains(new SyncRepo("A", "v1")));
         Assert.assertTrue(syncService.get(agent).getRepos().contains(new SyncRepo("B", "v2")));
 
-        // then: should send delete session cmd and sync task queue size should be zero
-        strategy = new CountMatchingStrategy(CountMatchingStrategy.EQUAL_TO, 3);
+        // then: the hello repo create event should be send back to agent sync queue
+        Assert.assertEquals(1, syncService.get(agent).queueSize());
+
+        // then: should send delete session cmd and sync task should be finished
+        strategy = new CountMatchingStrategy(CountMatchingStrategy.EQUAL_TO, 2);
         verify(strategy, postRequestedFor(urlEqualTo("/cmd/send")));
-        Assert.assertEquals(0, syncService.getSyncTask(agent).getSyncQueue().size());
+        Assert.assertEquals(SyncTaskStatus.FINISHED, syncService.getSyncTask(agent).getStatus());
 
         // when: mock delete session cmd
         Cmd mockDeleteSession = new Cmd(agent.getZone(), agent.getName(), CmdType.DELETE_SESSION, null);
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.api.test.util;
+
+import com.flow.platform.api.domain.EmailSettingContent;
+import com.flow.platform.api.util.SmtpTransportPool;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.Session;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+
+    private SmtpTransportPool pool;
+
+    @Before
+    public void init() throws Throwable {
+        server = new FakeSmtpServer();
+        server.start();
+
+        EmailSettingContent setting = new EmailSettingContent("localhost", server.getPort(), "admin@flow.ci");
+        setting.setAuthenticated(false);
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", setting.getSmtpUrl());
+        props.put("mail.smtp.port", setting.getSmtpPort().toString());
+        pool = new SmtpTransportPool(setting, Session.getInstance(props), 2);
+    }
+
+    @After
+    public void after() throws Throwable {
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    public void should_send_messages_by_reused_connection() throws Throwable {
+        // when: send three messages
+        pool.send("user1@flow.ci", "subject", "<p>body</p>");
+        pool.send("user2@flow.ci", "subject", "<p>body</p>");
+        pool.send("user3@flow.ci", "subject", "<p>body</p>");
+
+        // then: all messages received within one connection
+        Assert.assertEquals(3, server.getRecipients().size());
+        Assert.assertEquals("<user1@flow.ci>", server.getRecipients().get(0));
+        Assert.assertEquals(1, server.getNumOfConnection());
+        Assert.assertEquals(1, pool.numOfIdle());
+
+        // when: pool closed
+        pool.close();
+
+        // then: no idle connection
+        Assert.assertEquals(0, pool.numOfIdle());
+    }
+
+    /**
+     * Minimum smtp server which accept all messages
+     */
+    private static class FakeSmtpServer extends Thread {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger numOfConnection = new AtomicInteger(0);
+
+        FakeSmtpServer() throws IOException {
+            setDaemon(true);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        List<String> getRecipients() {
+            return recipients;
+        }
+
+        int getNumOfConnection() {
+            return numOfConnection.get();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    numOfConnection.incrementAndGet();
+
+                    Thread handler = new Thread(() -> handle(socket));
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException ignore) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (Socket s = socket;
+                BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter writer = new PrintWriter(s.getOutputStream(), true)) {
+
+                reply(writer, "220 localhost fake smtp");
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String command = line.toUpperCase();
+
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(writer, "250 localhost");
+                    } else if (command.startsWith("RCPT TO:")) {
+                        recipients.add(line.substring("RCPT TO:".length()).trim());
+                        reply(writer, "250 OK");
+                    } else if (command.startsWith("DATA")) {
+                        reply(writer, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = reader.readLine()) != null && !line.equals(".")) {
+                            // ignore message content
+                        }
+                        reply(writer, "250 OK");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(writer, "221 Bye");
+                        return;
+                    } else {
+                        reply(writer, "250 OK");
+                    }
+                }
+            } catch (IOException ignore) {
+            }
+        }
+
+        private static void reply(PrintWriter writer, String message) {
+            writer.print(message + "\r\n");
+            writer.flush();
+        }
+    }
+}
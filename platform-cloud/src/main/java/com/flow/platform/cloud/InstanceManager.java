@@ -62,6 +62,17 @@ public interface InstanceManager {
      */
     List<String> batchStartInstance(Zone zone);
 
+    /**
+     * Async to start given num of instance instead of Zone.numOfStart
+     *
+     * @return List of instance name
+     */
+    default List<String> batchStartInstance(Zone zone, int numOfInstance) {
+        Zone copied = Zone.parse(zone.toJson(), Zone.class);
+        copied.setNumOfStart(numOfInstance);
+        return batchStartInstance(copied);
+    }
+
     /**
      * Add instance to clean list
      */
@@ -50,6 +50,11 @@ public class AgentResourceEventHandler implements ApplicationListener<AgentResou
         String zone = event.getZone();
         LOGGER.trace("AgentResourceEvent received for zone '%s' with '%s'", zone, event.getCategory());
 
+        // cancel scale down of zone since agent not enough
+        if (event.getCategory() == Category.FULL) {
+            zoneService.forecast(zone).onShortage();
+        }
+
         // cleanup agent from zone
         zoneService.keepIdleAgentTask();
 
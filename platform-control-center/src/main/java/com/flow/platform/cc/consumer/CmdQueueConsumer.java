@@ -17,9 +17,11 @@
 package com.flow.platform.cc.consumer;
 
 import com.flow.platform.cc.config.QueueConfig;
+import com.flow.platform.cc.domain.AgentPoolForecast;
 import com.flow.platform.cc.exception.AgentErr;
 import com.flow.platform.cc.service.CmdDispatchService;
 import com.flow.platform.cc.service.CmdService;
+import com.flow.platform.cc.service.ZoneService;
 import com.flow.platform.core.exception.IllegalParameterException;
 import com.flow.platform.core.exception.IllegalStatusException;
 import com.flow.platform.core.queue.PriorityMessage;
@@ -59,6 +61,9 @@ public class CmdQueueConsumer implements QueueListener<PriorityMessage> {
     @Autowired
     private CmdDispatchService cmdDispatchService;
 
+    @Autowired
+    private ZoneService zoneService;
+
     @Autowired
     private PlatformQueue<PriorityMessage> cmdQueue;
 
@@ -74,6 +79,11 @@ public class CmdQueueConsumer implements QueueListener<PriorityMessage> {
 
         Cmd cmd = cmdService.find(cmdId);
 
+        // agent path will be assigned to cmd while dispatching
+        final boolean isDemand = cmd != null && AgentPoolForecast.isDemand(cmd);
+        final String zoneName = isDemand ? cmd.getZoneName() : null;
+        boolean isRetried = false;
+
         try {
             cmdDispatchService.dispatch(cmd);
         } catch (IllegalParameterException e) {
@@ -104,10 +114,16 @@ public class CmdQueueConsumer implements QueueListener<PriorityMessage> {
             }
 
             // retry the message
+            isRetried = true;
             retry(message);
 
         } catch (Throwable e) {
             LOGGER.error("Unexpected exception", e);
+        } finally {
+            // cmd leave the queue since not retry
+            if (isDemand && !isRetried) {
+                zoneService.forecast(zoneName).onDequeue();
+            }
         }
     }
 
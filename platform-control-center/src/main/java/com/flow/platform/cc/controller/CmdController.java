@@ -139,6 +139,27 @@ public class CmdController {
         cmdService.saveLog(cmdId, file);
     }
 
+    /**
+     * Upload segment of zipped cmd log while cmd running
+     *
+     * @param cmdId cmd id with text/plain
+     * @param offset position of segment in zipped log
+     * @param isLast is the last segment of zipped log
+     * @param file segment of zipped log
+     * @return size of log received, agent should upload next segment from it
+     */
+    @PostMapping(path = "/log/upload/chunk")
+    public Long uploadLogChunk(@RequestPart String cmdId,
+                               @RequestPart String offset,
+                               @RequestPart String isLast,
+                               @RequestPart MultipartFile file) {
+        try {
+            return cmdService.saveLog(cmdId, Long.parseLong(offset), Boolean.parseBoolean(isLast), file);
+        } catch (NumberFormatException e) {
+            throw new IllegalParameterException("Illegal offset of log segment");
+        }
+    }
+
     /**
      * Get zipped log file by cmd id
      */
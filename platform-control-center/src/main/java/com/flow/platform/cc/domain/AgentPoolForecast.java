@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.domain;
+
+import com.flow.platform.domain.CmdBase;
+import com.flow.platform.domain.CmdType;
+import com.flow.platform.domain.Zone;
+import java.util.LinkedList;
+
+/**
+ * Idle agent demand forecast for a zone
+ *
+ * - arrival rate of cmd which requires idle agent, smoothed by exponential moving average
+ * - num of cmd waiting in cmd queue for the zone
+ * - num of instance been started but agent not online yet
+ *
+ * The target num of idle agent is the demand of instance startup time plus queue depth,
+ * scale up immediately and scale down only if surplus kept over Zone.scaleDownDelay
+ *
+ * @author yang
+ */
+public class AgentPoolForecast {
+
+    /**
+     * Time constant of arrival rate moving average in millis
+     */
+    private final static double RATE_TIME_CONSTANT = 300 * 1000;
+
+    private final String zone;
+
+    private double arrivalRate = 0.0; // num of cmd per second
+
+    private int numOfArrival = 0;
+
+    private long lastTick;
+
+    private int queueDepth = 0;
+
+    private long surplusSince = -1;
+
+    /**
+     * Started time in millis of instance which agent not online yet
+     */
+    private final LinkedList<Long> provisioning = new LinkedList<>();
+
+    public AgentPoolForecast(String zone, long now) {
+        this.zone = zone;
+        this.lastTick = now;
+    }
+
+    /**
+     * Cmd will select idle agent from zone if agent name and session not defined
+     */
+    public static boolean isDemand(CmdBase cmd) {
+        if (cmd.getAgentPath() == null || cmd.getAgentPath().hasName() || cmd.hasSession()) {
+            return false;
+        }
+
+        return cmd.getType() == CmdType.RUN_SHELL || cmd.getType() == CmdType.CREATE_SESSION;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public synchronized double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public synchronized int getNumOfProvisioning() {
+        return provisioning.size();
+    }
+
+    /**
+     * Cmd which requires idle agent put into cmd queue
+     */
+    public synchronized void onEnqueue() {
+        numOfArrival++;
+        queueDepth++;
+    }
+
+    /**
+     * Cmd removed from cmd queue, dispatched or dropped
+     */
+    public synchronized void onDequeue() {
+        if (queueDepth > 0) {
+            queueDepth--;
+        }
+    }
+
+    /**
+     * No idle agent for cmd, cancel scale down
+     */
+    public synchronized void onShortage() {
+        surplusSince = -1;
+    }
+
+    /**
+     * Num of instance been started
+     */
+    public synchronized void onStarted(int numOfInstance, long now) {
+        for (int i = 0; i < numOfInstance; i++) {
+            provisioning.addLast(now);
+        }
+    }
+
+    /**
+     * Reserve num of instance to start as provisioning, so concurrent evaluation will not start them again
+     *
+     * @return num of instance should be started
+     */
+    public synchronized int reserveStart(Zone zone, int numOfIdle, long now) {
+        int numOfStart = numOfStart(zone, numOfIdle);
+        onStarted(numOfStart, now);
+        return numOfStart;
+    }
+
+    /**
+     * Num of reserved instance which failed to start
+     */
+    public synchronized void onStartFailed(int numOfInstance) {
+        for (int i = 0; i < numOfInstance && !provisioning.isEmpty(); i++) {
+            provisioning.pollLast();
+        }
+    }
+
+    /**
+     * Agent online from zone
+     */
+    public synchronized void onAgentOnline() {
+        provisioning.pollFirst();
+    }
+
+    /**
+     * Fold arrivals since last tick into arrival rate and expire provisioning instance
+     */
+    public synchronized void tick(Zone zone, long now) {
+        long elapsed = now - lastTick;
+        if (elapsed > 0) {
+            double instant = numOfArrival * 1000.0 / elapsed;
+            double alpha = 1 - Math.exp(-elapsed / RATE_TIME_CONSTANT);
+            arrivalRate = alpha * instant + (1 - alpha) * arrivalRate;
+            numOfArrival = 0;
+            lastTick = now;
+        }
+
+        // instance not online within twice startup time treated as failure
+        long expired = now - zone.getInstanceStartupTime() * 2000L;
+        while (!provisioning.isEmpty() && provisioning.peekFirst() < expired) {
+            provisioning.pollFirst();
+        }
+    }
+
+    /**
+     * Target num of idle agent in range of zone min and max pool size
+     */
+    public synchronized int target(Zone zone) {
+        int predicted = (int) Math.ceil(arrivalRate * zone.getInstanceStartupTime()) + queueDepth;
+        return Math.min(zone.getMaxPoolSize(), Math.max(zone.getMinPoolSize(), predicted));
+    }
+
+    /**
+     * Num of instance should be started for num of idle agent
+     */
+    public synchronized int numOfStart(Zone zone, int numOfIdle) {
+        return Math.max(0, target(zone) - numOfIdle - provisioning.size());
+    }
+
+    /**
+     * Num of idle agent should be shutdown
+     * - immediately if over zone max pool size
+     * - surplus over target only if it kept longer than zone scale down delay
+     */
+    public synchronized int numOfShutdown(Zone zone, int numOfIdle, long now) {
+        if (numOfIdle > zone.getMaxPoolSize()) {
+            surplusSince = -1;
+            return numOfIdle - zone.getMaxPoolSize();
+        }
+
+        int target = target(zone);
+        if (numOfIdle <= target) {
+            surplusSince = -1;
+            return 0;
+        }
+
+        if (surplusSince < 0) {
+            surplusSince = now;
+            return 0;
+        }
+
+        if (now - surplusSince < zone.getScaleDownDelay() * 1000L) {
+            return 0;
+        }
+
+        surplusSince = -1;
+        return numOfIdle - target;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AgentPoolForecast{" +
+            "zone='" + zone + '\'' +
+            ", arrivalRate=" + arrivalRate +
+            ", queueDepth=" + queueDepth +
+            ", provisioning=" + provisioning.size() +
+            '}';
+    }
+}
@@ -19,9 +19,11 @@ package com.flow.platform.cc.service;
 import com.flow.platform.core.service.WebhookService;
 import com.flow.platform.domain.Agent;
 import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.AgentResume;
 import com.flow.platform.domain.AgentSettings;
 import com.flow.platform.domain.AgentStatus;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -30,15 +32,24 @@ import java.util.Set;
  */
 public interface AgentService extends WebhookService {
 
-    int SESSION_TIMEOUT_TASK_HEARTBEAT = 60 * 1000; // millisecond
-
-    int IDLE_AGENT_TASK_HEARTBEAT = 30 * 1000; // millisecond
+    int IDLE_AGENT_RELEASED_PERIOD = 30 * 1000; // millisecond
 
     /**
      * Async update agent offline or online status
      */
     void report(AgentPath path, AgentStatus status);
 
+    /**
+     * Resume agent registered again after zookeeper session expired,
+     * keep session and busy status if agent still has the session or running cmd
+     */
+    void resume(AgentPath path, AgentResume resume);
+
+    /**
+     * Batch report online agents of zone, create or update them to idle in one transaction
+     */
+    void report(String zone, Collection<String> agents);
+
     /**
      * List agent by zone name
      */
@@ -104,12 +115,17 @@ public interface AgentService extends WebhookService {
     void delete(Agent agent);
 
     /**
-     * To check agent session timeout
+     * Build agent session and idle deadlines of zone from db
+     */
+    void initExpiry(String zone);
+
+    /**
+     * Handle agent session deadline, send DELETE_SESSION if agent session timeout
      */
-    void sessionTimeoutTask();
+    void onSessionExpired(AgentPath path);
 
     /**
-     * Task to check num of idle agent for zone
+     * Handle idle agent deadline of zone, broadcast AgentResourceEvent RELEASED if zone still has idle agent
      */
-    void idleAgentTask();
+    void onIdleExpired(String zone);
 }
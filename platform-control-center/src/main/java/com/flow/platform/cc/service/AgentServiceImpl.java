@@ -21,11 +21,14 @@ import com.flow.platform.cc.dao.AgentDao;
 import com.flow.platform.cc.event.AgentResourceEvent;
 import com.flow.platform.cc.event.AgentResourceEvent.Category;
 import com.flow.platform.cc.exception.AgentErr;
+import com.flow.platform.cc.util.ExpiryIndex;
+import com.flow.platform.core.context.ContextEvent;
 import com.flow.platform.core.exception.IllegalParameterException;
 import com.flow.platform.core.exception.IllegalStatusException;
 import com.flow.platform.core.service.WebhookServiceImplBase;
 import com.flow.platform.domain.Agent;
 import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.AgentResume;
 import com.flow.platform.domain.AgentSettings;
 import com.flow.platform.domain.AgentStatus;
 import com.flow.platform.domain.Cmd;
@@ -36,18 +39,25 @@ import com.flow.platform.util.DateUtil;
 import com.flow.platform.util.ExceptionUtil;
 import com.flow.platform.util.Logger;
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
 import com.google.gson.annotations.Expose;
 import java.sql.SQLDataException;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
@@ -58,10 +68,31 @@ import org.springframework.transaction.annotation.Transactional;
  */
 @Service
 @Transactional
-public class AgentServiceImpl extends WebhookServiceImplBase implements AgentService {
+public class AgentServiceImpl extends WebhookServiceImplBase implements AgentService, ContextEvent {
 
     private final static Logger LOGGER = new Logger(AgentService.class);
 
+    private final ScheduledExecutorService expiryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "agent-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Session deadline of agent
+     */
+    private final ExpiryIndex<AgentPath> sessionExpiry = new ExpiryIndex<>(expiryScheduler, this::onSessionExpired);
+
+    /**
+     * Deadline of zone to broadcast RELEASED event again if idle agent still in zone
+     */
+    private final ExpiryIndex<String> idleExpiry = new ExpiryIndex<>(expiryScheduler, this::onIdleExpired);
+
+    /**
+     * Idle agent set by zone name
+     */
+    private final Map<String, Set<AgentPath>> idleAgents = new ConcurrentHashMap<>();
+
     @Autowired
     private ZoneService zoneService;
 
@@ -80,6 +111,16 @@ public class AgentServiceImpl extends WebhookServiceImplBase implements AgentSer
     @Autowired
     private AgentSettings agentSettings;
 
+    @Override
+    public void start() {
+        // ignore, expiry index initialized while zone created
+    }
+
+    @Override
+    public void stop() {
+        expiryScheduler.shutdownNow();
+    }
+
     @Override
     public void report(AgentPath path, AgentStatus status) {
         Agent exist = find(path);
@@ -113,6 +154,83 @@ public class AgentServiceImpl extends WebhookServiceImplBase implements AgentSer
         }
     }
 
+    @Override
+    public void resume(AgentPath path, AgentResume resume) {
+        Agent exist = find(path);
+        if (exist == null || exist.getStatus() != AgentStatus.OFFLINE) {
+            report(path, AgentStatus.IDLE);
+            return;
+        }
+
+        boolean isSessionResumed = resume.getSessionId() != null
+            && Objects.equals(resume.getSessionId(), exist.getSessionId());
+
+        // cmd still running on agent and not finished in control center
+        int numOfRunning = 0;
+        for (Cmd cmd : cmdService.listWorkingCmd(path)) {
+            if (resume.getRunning().contains(cmd.getId())) {
+                numOfRunning++;
+            }
+        }
+
+        if (!isSessionResumed && numOfRunning == 0) {
+            report(path, AgentStatus.IDLE);
+            return;
+        }
+
+        if (!isSessionResumed) {
+            exist.setSessionId(null);
+        }
+
+        saveWithStatus(exist, AgentStatus.BUSY);
+        LOGGER.trace("Agent %s resumed with session %s and %s running cmd", path, exist.getSessionId(), numOfRunning);
+    }
+
+    @Override
+    public void report(String zone, Collection<String> agents) {
+        Map<String, Agent> exists = new HashMap<>();
+        for (Agent agent : agentDao.list(zone, "createdDate")) {
+            exists.put(agent.getName(), agent);
+        }
+
+        List<Agent> created = new ArrayList<>(agents.size());
+        List<Agent> updated = new ArrayList<>(agents.size());
+
+        for (String name : agents) {
+            Agent exist = exists.get(name);
+
+            // create new agent with idle status
+            if (exist == null) {
+                Agent agent = newAgent(new AgentPath(zone, name), null);
+                agent.setStatus(AgentStatus.IDLE);
+                created.add(agent);
+                continue;
+            }
+
+            // update exist offline agent to idle status
+            if (exist.getStatus() == AgentStatus.OFFLINE) {
+                exist.setSessionId(null);
+                exist.setStatus(AgentStatus.IDLE);
+                updated.add(exist);
+            }
+        }
+
+        if (created.isEmpty() && updated.isEmpty()) {
+            return;
+        }
+
+        agentDao.saveAll(created);
+        agentDao.updateAll(updated);
+        LOGGER.trace("Agents reported for zone %s: %s created, %s updated", zone, created.size(), updated.size());
+
+        for (Agent agent : Iterables.concat(created, updated)) {
+            trackExpiry(agent);
+            this.webhookCallback(agent);
+        }
+
+        this.dispatchEvent(new AgentResourceEvent(this, zone, Category.RELEASED));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Agent find(AgentPath key) {
@@ -160,6 +278,7 @@ public class AgentServiceImpl extends WebhookServiceImplBase implements AgentSer
 
         agent.setStatus(status);
         agentDao.update(agent);
+        trackExpiry(agent);
         LOGGER.trace("Agent status been updated to '%s'", status);
 
         // send webhook if status changed
@@ -190,14 +309,7 @@ public class AgentServiceImpl extends WebhookServiceImplBase implements AgentSer
             throw new IllegalParameterException(String.format("The agent '%s' has already exsited", agentPath));
         }
 
-        agent = new Agent(agentPath);
-        agent.setCreatedDate(DateUtil.now());
-        agent.setUpdatedDate(DateUtil.now());
-        agent.setStatus(AgentStatus.OFFLINE);
-        agent.setWebhook(webhook);
-
-        //random token
-        agent.setToken(UUID.randomUUID().toString());
+        agent = newAgent(agentPath, webhook);
         agentDao.save(agent);
 
         return agent;
@@ -234,46 +346,108 @@ public class AgentServiceImpl extends WebhookServiceImplBase implements AgentSer
     public void delete(Agent agent) {
         try {
             agentDao.delete(agent);
+            untrackExpiry(agent.getPath());
         } catch (Throwable e) {
             throw new UnsupportedOperationException("delete agent failure " + e.getMessage());
         }
 
     }
 
+    /**
+     * Load agents once to build deadlines, then maintained by agent status changes
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void initExpiry(String zone) {
+        for (Agent agent : agentDao.list(zone, "createdDate")) {
+            trackExpiry(agent);
+        }
+        LOGGER.trace("Agent expiry index initialized for zone %s: %s sessions", zone, sessionExpiry.size());
+    }
+
     @Override
     @Transactional(propagation = Propagation.NEVER)
-    @Scheduled(initialDelay = 10 * 1000, fixedDelay = SESSION_TIMEOUT_TASK_HEARTBEAT)
-    public void sessionTimeoutTask() {
+    public void onSessionExpired(AgentPath path) {
         if (!taskConfig.isEnableAgentSessionTimeoutTask()) {
             return;
         }
 
-        LOGGER.traceMarker("sessionTimeoutTask", "start");
-        ZonedDateTime now = DateUtil.utcNow();
-
-        for (Zone zone : zoneService.getZones()) {
-            Collection<Agent> agents = listForOnline(zone.getName());
-            for (Agent agent : agents) {
-                if (agent.getSessionId() != null && isSessionTimeout(agent, now, zone.getAgentSessionTimeout())) {
-                    Cmd delSessionCmd = cmdService.create(new CmdInfo(agent.getPath(), CmdType.DELETE_SESSION, null));
-                    cmdDispatchService.dispatch(delSessionCmd);
-                    LOGGER.traceMarker("sessionTimeoutTask", "Send DELETE_SESSION to agent %s", agent);
-                }
-            }
+        Agent agent = find(path);
+        Zone zone = zoneService.getZone(path.getZone());
+
+        if (agent == null || zone == null || agent.getSessionId() == null || agent.getStatus() == AgentStatus.OFFLINE) {
+            return;
+        }
+
+        // session been refreshed after deadline registered
+        if (!isSessionTimeout(agent, DateUtil.utcNow(), zone.getAgentSessionTimeout())) {
+            trackExpiry(agent);
+            return;
         }
 
-        LOGGER.traceMarker("sessionTimeoutTask", "end");
+        CmdInfo cmdInfo = new CmdInfo(agent.getPath(), CmdType.DELETE_SESSION, null);
+        cmdInfo.setSessionId(agent.getSessionId());
+
+        Cmd delSessionCmd = cmdService.create(cmdInfo);
+        cmdDispatchService.dispatch(delSessionCmd);
+        LOGGER.traceMarker("onSessionExpired", "Send DELETE_SESSION to agent %s", agent);
     }
 
     @Override
     @Transactional(propagation = Propagation.NEVER)
-    @Scheduled(initialDelay = 10 * 1000, fixedDelay = IDLE_AGENT_TASK_HEARTBEAT)
-    public void idleAgentTask() {
-        for (Zone zone : zoneService.getZones()) {
-            List<Agent> availableList = findAvailable(zone.getName());
-            if (availableList.size() > 0) {
-                this.dispatchEvent(new AgentResourceEvent(this, zone.getName(), Category.RELEASED));
-            }
+    public void onIdleExpired(String zone) {
+        Set<AgentPath> idleSet = idleAgents.get(zone);
+        if (idleSet == null || idleSet.isEmpty()) {
+            return;
+        }
+
+        this.dispatchEvent(new AgentResourceEvent(this, zone, Category.RELEASED));
+        idleExpiry.registerIfAbsent(zone, IDLE_AGENT_RELEASED_PERIOD);
+    }
+
+    /**
+     * Update idle set and deadlines from agent status and session
+     */
+    private void trackExpiry(Agent agent) {
+        AgentPath path = agent.getPath();
+        Set<AgentPath> idleSet = idleAgents.computeIfAbsent(agent.getZone(), key -> ConcurrentHashMap.newKeySet());
+
+        if (agent.getStatus() == AgentStatus.IDLE) {
+            idleSet.add(path);
+            idleExpiry.registerIfAbsent(agent.getZone(), IDLE_AGENT_RELEASED_PERIOD);
+        } else {
+            idleSet.remove(path);
+        }
+
+        Zone zone = zoneService.getZone(agent.getZone());
+        boolean hasSession = agent.getSessionId() != null && agent.getSessionDate() != null;
+
+        if (zone == null || !hasSession || agent.getStatus() == AgentStatus.OFFLINE) {
+            sessionExpiry.cancel(path);
+            return;
+        }
+
+        ZonedDateTime deadline = agent.getSessionDate().plusSeconds(zone.getAgentSessionTimeout());
+        sessionExpiry.register(path, ChronoUnit.MILLIS.between(DateUtil.utcNow(), deadline));
+    }
+
+    private Agent newAgent(AgentPath agentPath, String webhook) {
+        Agent agent = new Agent(agentPath);
+        agent.setCreatedDate(DateUtil.now());
+        agent.setUpdatedDate(DateUtil.now());
+        agent.setStatus(AgentStatus.OFFLINE);
+        agent.setWebhook(webhook);
+
+        //random token
+        agent.setToken(UUID.randomUUID().toString());
+        return agent;
+    }
+
+    private void untrackExpiry(AgentPath path) {
+        Set<AgentPath> idleSet = idleAgents.get(path.getZone());
+        if (idleSet != null) {
+            idleSet.remove(path);
         }
+        sessionExpiry.cancel(path);
     }
 }
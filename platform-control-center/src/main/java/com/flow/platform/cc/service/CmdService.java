@@ -33,6 +33,11 @@ public interface CmdService extends WebhookService {
 
     Integer DEFAULT_CMD_TIMEOUT = 3600; // in seconds, default 1 hour
 
+    /**
+     * Load working RUN_SHELL cmd from db to rebuild num of running cmd of agent
+     */
+    void loadRunningCmd();
+
     /**
      * Create command from CmdInfo
      *
@@ -93,4 +98,12 @@ public interface CmdService extends WebhookService {
      * Record full zipped log to store
      */
     void saveLog(String cmdId, MultipartFile file);
+
+    /**
+     * Write segment of zipped log at offset, the full log recorded when the last segment received
+     *
+     * @return size of log received, the position of next segment,
+     * -1 if cmd finished without full log and segment no longer accepted
+     */
+    long saveLog(String cmdId, long offset, boolean isLast, MultipartFile file);
 }
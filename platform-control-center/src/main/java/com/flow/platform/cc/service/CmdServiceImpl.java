@@ -27,8 +27,11 @@ import com.flow.platform.cc.config.QueueConfig;
 import com.flow.platform.cc.dao.CmdDao;
 import com.flow.platform.cc.dao.CmdLogDao;
 import com.flow.platform.cc.dao.CmdResultDao;
+import com.flow.platform.cc.domain.AgentPoolForecast;
 import com.flow.platform.cc.domain.CmdStatusItem;
 import com.flow.platform.cc.exception.AgentErr;
+import com.flow.platform.cc.util.RunningCmdIndex;
+import com.flow.platform.core.context.ContextEvent;
 import com.flow.platform.core.exception.IllegalParameterException;
 import com.flow.platform.core.exception.IllegalStatusException;
 import com.flow.platform.core.queue.PriorityMessage;
@@ -47,10 +50,15 @@ import com.flow.platform.util.Logger;
 import com.flow.platform.util.zk.ZKClient;
 import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.ZonedDateTime;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -58,11 +66,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
 import javax.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -71,7 +82,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 @Service
 @Transactional
-public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService {
+public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService, ContextEvent {
 
     private final static Logger LOGGER = new Logger(CmdService.class);
 
@@ -93,6 +104,9 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
     @Autowired
     private Path cmdLogDir;
 
+    // lock segments writing of the same cmd log
+    private final Striped<Lock> logLocks = Striped.lock(64);
+
     /**
      * The queue item is cmd id as string
      */
@@ -107,6 +121,11 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
 
     private final Map<EnumSet<CmdType>, CmdValidator> cmdValidators = new HashMap<>();
 
+    /**
+     * Working RUN_SHELL cmd of agent to decide agent status without listing cmd
+     */
+    private final RunningCmdIndex runningCmdIndex = new RunningCmdIndex();
+
     @PostConstruct
     public void init() {
         CmdValidatorForZoneRequired zoneRequired = new CmdValidatorForZoneRequired();
@@ -122,6 +141,25 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
         cmdValidators.put(validSession.targets(), validSession);
     }
 
+    @Override
+    public void start() {
+        loadRunningCmd();
+    }
+
+    @Override
+    public void stop() {
+        // ignore
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void loadRunningCmd() {
+        runningCmdIndex.clear();
+        for (Cmd cmd : listWorkingCmd(null)) {
+            runningCmdIndex.update(cmd);
+        }
+    }
+
     @Override
     @Transactional(noRollbackFor = Throwable.class)
     public Cmd create(CmdInfo info) {
@@ -165,12 +203,15 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
             cmd.setRetry(retry);
         }
 
-        return cmdDao.save(cmd);
+        cmd = cmdDao.save(cmd);
+        trackRunningCmd(cmd);
+        return cmd;
     }
 
     @Override
     public void save(Cmd cmd) {
         cmdDao.update(cmd);
+        trackRunningCmd(cmd);
     }
 
     @Override
@@ -205,6 +246,11 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
         PriorityMessage message = PriorityMessage.create(cmd.getId().getBytes(), priority);
         cmdQueue.enqueue(message);
 
+        // record demand of idle agent for zone
+        if (AgentPoolForecast.isDemand(cmd)) {
+            zoneService.forecast(cmd.getZoneName()).onEnqueue();
+        }
+
         return cmd;
     }
 
@@ -234,6 +280,11 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
         // update cmd status
         save(cmd);
 
+        // log segments never completed if agent died or fallback to upload full log
+        if (Cmd.FINISH_STATUS.contains(cmd.getStatus())) {
+            deleteLogPart(cmdId);
+        }
+
         // compare exiting cmd result and update
         CmdResult inputResult = statusItem.getCmdResult();
 
@@ -260,13 +311,104 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
             throw new IllegalArgumentException("Cmd not exist");
         }
 
+        Path target = Paths.get(cmdLogDir.toString(), file.getOriginalFilename());
+        Path part = logPartPath(cmdId);
+
+        Lock lock = logLocks.get(cmdId);
+        lock.lock();
+
         try {
-            Path target = Paths.get(cmdLogDir.toString(), file.getOriginalFilename());
             Files.write(target, file.getBytes());
+
+            // uploaded segments not needed since full log uploaded
+            Files.deleteIfExists(part);
+
             cmdLog.setLogPath(target.toString());
             cmdLogDao.update(cmdLog);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long saveLog(String cmdId, long offset, boolean isLast, MultipartFile file) {
+        CmdLog cmdLog = cmdLogDao.get(cmdId);
+        if (cmdLog == null) {
+            throw new IllegalArgumentException("Cmd not exist");
+        }
+
+        Path target = Paths.get(cmdLogDir.toString(), file.getOriginalFilename());
+        Path part = logPartPath(cmdId);
+
+        Lock lock = logLocks.get(cmdId);
+        lock.lock();
+
+        try {
+            // log already completed, segment uploaded again by retry should not create part file again
+            if (cmdLog.getLogPath() != null) {
+                Path logPath = Paths.get(cmdLog.getLogPath());
+                return Files.exists(logPath) ? Files.size(logPath) : -1L;
+            }
+
+            // cmd finished and part file been deleted, agent should upload full log
+            Cmd cmd = find(cmdId);
+            if (cmd != null && Cmd.FINISH_STATUS.contains(cmd.getStatus())) {
+                return -1L;
+            }
+
+            long size;
+            boolean isCompleted;
+
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                size = channel.size();
+
+                // segment missing, agent should continue from received size
+                if (offset > size) {
+                    return size;
+                }
+
+                // segment may be uploaded again by retry, overwrite with the same content
+                ByteBuffer buffer = ByteBuffer.wrap(file.getBytes());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + buffer.position());
+                }
+
+                size = channel.size();
+                isCompleted = isLast && offset + buffer.capacity() == size;
+            }
+
+            // move part file to target after channel closed
+            if (isCompleted) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+                cmdLog.setLogPath(target.toString());
+                cmdLogDao.update(cmdLog);
+            }
+
+            return size;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path logPartPath(String cmdId) {
+        // replace / with - since cmd id may includes slash which the same as dir path
+        return Paths.get(cmdLogDir.toString(), cmdId.replace('/', '-') + ".part");
+    }
+
+    private void deleteLogPart(String cmdId) {
+        Lock lock = logLocks.get(cmdId);
+        lock.lock();
+
+        try {
+            Files.deleteIfExists(logPartPath(cmdId));
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete log segments of cmd %s: %s", cmdId, e.getMessage());
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -283,25 +425,31 @@ public class CmdServiceImpl extends WebhookServiceImplBase implements CmdService
         }
 
         AgentPath agentPath = cmd.getAgentPath();
-        boolean isAgentBusy = false;
+        boolean isAgentBusy = runningCmdIndex.count(agentPath) > 0;
 
-        for (Cmd tmp : listByAgentPath(agentPath)) {
-            if (tmp.getType() != CmdType.RUN_SHELL) {
-                continue;
-            }
+        Agent agent = agentService.find(agentPath);
+        agentService.saveWithStatus(agent, isAgentBusy ? AgentStatus.BUSY : AgentStatus.IDLE);
+    }
 
-            if (!tmp.getAgentPath().equals(agentPath)) {
-                continue;
-            }
+    /**
+     * Update running cmd index immediately and revert it if transaction rolled back
+     */
+    private void trackRunningCmd(Cmd cmd) {
+        final String cmdId = cmd.getId();
+        final AgentPath previous = runningCmdIndex.update(cmd);
 
-            if (tmp.isCurrent()) {
-                isAgentBusy = true;
-                break;
-            }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
         }
 
-        Agent agent = agentService.find(agentPath);
-        agentService.saveWithStatus(agent, isAgentBusy ? AgentStatus.BUSY : AgentStatus.IDLE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    runningCmdIndex.put(cmdId, previous);
+                }
+            }
+        });
     }
 
     /**
@@ -16,6 +16,7 @@
 
 package com.flow.platform.cc.service;
 
+import com.flow.platform.cc.domain.AgentPoolForecast;
 import com.flow.platform.cloud.InstanceManager;
 import com.flow.platform.domain.Zone;
 import java.util.List;
@@ -62,18 +63,26 @@ public interface ZoneService {
     InstanceManager findInstanceManager(Zone zone);
 
     /**
-     * Keep agent pool for min size
+     * Get idle agent demand forecast of zone
+     *
+     * @param zoneName zone name
+     * @return AgentPoolForecast instance, created if not exist
+     */
+    AgentPoolForecast forecast(String zoneName);
+
+    /**
+     * Keep agent pool for forecast target size, which not less than min size
      */
     boolean keepIdleAgentMinSize(Zone zone, InstanceManager instanceManager);
 
     /**
-     * Keep agent pool for max size
+     * Keep agent pool for max size, and shrink to forecast target size after zone scale down delay
      */
     boolean keepIdleAgentMaxSize(Zone zone, InstanceManager instanceManager);
 
     /**
      * Scheduler task, periodically, every 1 min to check available agent in zone
-     * It will start instance if num of available agent not enough
+     * It will start instance if num of available agent less than forecast target
      */
     void keepIdleAgentTask();
 }
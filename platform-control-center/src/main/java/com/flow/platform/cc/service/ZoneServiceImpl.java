@@ -17,26 +17,31 @@
 package com.flow.platform.cc.service;
 
 import com.flow.platform.cc.config.TaskConfig;
+import com.flow.platform.cc.domain.AgentPoolForecast;
 import com.flow.platform.cc.util.ZKHelper;
 import com.flow.platform.cloud.InstanceManager;
 import com.flow.platform.core.context.ContextEvent;
 import com.flow.platform.core.context.SpringContext;
 import com.flow.platform.domain.Agent;
 import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.AgentResume;
 import com.flow.platform.domain.AgentSettings;
 import com.flow.platform.domain.AgentStatus;
 import com.flow.platform.domain.Cmd;
 import com.flow.platform.domain.CmdInfo;
 import com.flow.platform.domain.CmdType;
 import com.flow.platform.domain.Instance;
+import com.flow.platform.domain.Jsonable;
 import com.flow.platform.domain.Zone;
 import com.flow.platform.util.Logger;
 import com.flow.platform.util.zk.ZKClient;
 import com.google.common.collect.Lists;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
 import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent.Type;
@@ -79,6 +84,8 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
 
     private final Map<Zone, ZoneEventListener> zoneEventWatchers = new HashMap<>();
 
+    private final Map<String, AgentPoolForecast> forecasts = new ConcurrentHashMap<>();
+
     @Override
     public void start() {
         // init root node
@@ -108,18 +115,22 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
         final String zonePath = ZKHelper.buildPath(zone.getName(), null);
         zone.setPath(zonePath);
 
-        zkClient.create(zonePath, agentSettings.toBytes());
+        // only write settings if changed, since agents reload settings on zone data version changed
+        byte[] settings = agentSettings.toBytes();
+        if (!zkClient.exist(zonePath) || !Arrays.equals(settings, zkClient.getData(zonePath))) {
+            zkClient.create(zonePath, settings);
+        }
 
         List<String> agents = zkClient.getChildren(zonePath);
 
         if (!agents.isEmpty()) {
-            for (String agent : agents) {
-                agentService.report(new AgentPath(zone.getName(), agent), AgentStatus.IDLE);
-            }
+            agentService.report(zone.getName(), agents);
         }
 
         ZoneEventListener zoneEventWatcher = zoneEventWatchers.computeIfAbsent(zone, ZoneEventListener::new);
         zkClient.watchChildren(zonePath, zoneEventWatcher);
+
+        agentService.initExpiry(zone.getName());
         return zonePath;
     }
 
@@ -147,8 +158,13 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
         return (InstanceManager) springContext.getBean(beanName);
     }
 
+    @Override
+    public AgentPoolForecast forecast(String zoneName) {
+        return forecasts.computeIfAbsent(zoneName, name -> new AgentPoolForecast(name, System.currentTimeMillis()));
+    }
+
     /**
-     * Find num of idle agent and batch start instance
+     * Find num of idle agent and batch start instance for forecast target
      *
      * @return boolean true = need start instance, false = has enough idle agent
      */
@@ -157,8 +173,27 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
         int numOfIdle = agentService.findAvailable(zone.getName()).size();
         LOGGER.traceMarker("keepIdleAgentMinSize", "Num of idle agent in zone %s = %s", zone, numOfIdle);
 
-        if (numOfIdle < zone.getMinPoolSize()) {
-            instanceManager.batchStartInstance(zone);
+        // reserve provisioning in forecast lock, start instance outside of it
+        AgentPoolForecast forecast = forecast(zone.getName());
+        int numOfStart = forecast.reserveStart(zone, numOfIdle, System.currentTimeMillis());
+
+        if (numOfStart > 0) {
+            int numOfStarted = 0;
+
+            try {
+                List<String> started = instanceManager.batchStartInstance(zone, numOfStart);
+                numOfStarted = started == null ? 0 : started.size();
+            } catch (Throwable e) {
+                LOGGER.warn("Unable to start instance for zone %s: %s", zone.getName(), e.getMessage());
+            }
+
+            // release reservation of instance not started
+            if (numOfStarted < numOfStart) {
+                forecast.onStartFailed(numOfStart - numOfStarted);
+            }
+
+            LOGGER.traceMarker("keepIdleAgentMinSize", "Start %s of %s instance for %s",
+                numOfStarted, numOfStart, forecast);
             return true;
         }
 
@@ -166,7 +201,7 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
     }
 
     /**
-     * Find num of idle agent and check max pool size,
+     * Find num of idle agent and check max pool size or forecast target,
      * send shutdown cmd to agent and delete instance
      */
     @Override
@@ -175,9 +210,10 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
         int numOfIdle = agentList.size();
         LOGGER.traceMarker("keepIdleAgentMaxSize", "Num of idle agent in zone %s = %s", zone, numOfIdle);
 
-        if (numOfIdle > zone.getMaxPoolSize()) {
-            int numOfRemove = numOfIdle - zone.getMaxPoolSize();
+        AgentPoolForecast forecast = forecast(zone.getName());
+        int numOfRemove = forecast.numOfShutdown(zone, numOfIdle, System.currentTimeMillis());
 
+        if (numOfRemove > 0) {
             for (int i = 0; i < numOfRemove; i++) {
                 Agent idleAgent = agentList.get(i);
 
@@ -215,6 +251,9 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
                 continue;
             }
 
+            // decisions are made in forecast lock, db query and cloud api called outside of it
+            forecast(zone.getName()).tick(zone, System.currentTimeMillis());
+
             if (keepIdleAgentMinSize(zone, instanceManager)) {
                 continue;
             }
@@ -225,6 +264,22 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
         LOGGER.traceMarker("keepIdleAgentTask", "end");
     }
 
+    /**
+     * Load resume data written by agent on registration, null if node data is not resume data
+     */
+    private AgentResume loadResume(String agentNodePath) {
+        try {
+            byte[] raw = zkClient.getData(agentNodePath);
+            if (raw == null || raw.length == 0) {
+                return null;
+            }
+            return Jsonable.parse(raw, AgentResume.class);
+        } catch (Throwable e) {
+            LOGGER.warn("Unable to load resume data of agent %s: %s", agentNodePath, e.getMessage());
+            return null;
+        }
+    }
+
     private class ZoneEventListener implements PathChildrenCacheListener {
 
         private final Zone zone;
@@ -240,6 +295,21 @@ public class ZoneServiceImpl implements ZoneService, ContextEvent {
             final String name = ZKHelper.getNameFromPath(path);
             LOGGER.debugMarker("ZoneEventListener", "Receive zookeeper event %s %s", eventType, path);
 
+            if (eventType == Type.CHILD_ADDED) {
+                AgentPath agentPath = new AgentPath(zone.getName(), name);
+                AgentResume resume = loadResume(path);
+
+                if (resume != null && !resume.isEmpty()) {
+                    agentService.resume(agentPath, resume);
+                    return;
+                }
+
+                // only agent unknown by control center could be started by provisioning
+                if (agentService.find(agentPath) == null) {
+                    forecast(zone.getName()).onAgentOnline();
+                }
+            }
+
             if (eventType == Type.CHILD_ADDED || eventType == Type.CHILD_UPDATED) {
                 agentService.report(new AgentPath(zone.getName(), name), AgentStatus.IDLE);
                 return;
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.util;
+
+import com.flow.platform.util.Logger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In memory deadline index, only the latest registered deadline of key will be fired
+ *
+ * @author yang
+ */
+public class ExpiryIndex<K> {
+
+    private final static Logger LOGGER = new Logger(ExpiryIndex.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Consumer<K> onExpired;
+
+    private final Map<K, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    public ExpiryIndex(ScheduledExecutorService scheduler, Consumer<K> onExpired) {
+        this.scheduler = scheduler;
+        this.onExpired = onExpired;
+    }
+
+    /**
+     * Register or replace deadline of key
+     */
+    public void register(K key, long delayInMillis) {
+        Deadline deadline = new Deadline(key);
+        Deadline previous = deadlines.put(key, deadline);
+
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        deadline.schedule(delayInMillis);
+    }
+
+    /**
+     * Register deadline of key only if key not in index
+     *
+     * @return true if deadline registered
+     */
+    public boolean registerIfAbsent(K key, long delayInMillis) {
+        Deadline deadline = new Deadline(key);
+        if (deadlines.putIfAbsent(key, deadline) != null) {
+            return false;
+        }
+
+        deadline.schedule(delayInMillis);
+        return true;
+    }
+
+    public void cancel(K key) {
+        Deadline deadline = deadlines.remove(key);
+        if (deadline != null) {
+            deadline.cancel();
+        }
+    }
+
+    public boolean contains(K key) {
+        return deadlines.containsKey(key);
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    private class Deadline implements Runnable {
+
+        private final K key;
+
+        private volatile ScheduledFuture<?> future;
+
+        Deadline(K key) {
+            this.key = key;
+        }
+
+        void schedule(long delayInMillis) {
+            future = scheduler.schedule(this, Math.max(0, delayInMillis), TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            // deadline been replaced or canceled
+            if (!deadlines.remove(key, this)) {
+                return;
+            }
+
+            try {
+                onExpired.accept(key);
+            } catch (Throwable e) {
+                LOGGER.error("Fail to handle expired key: " + key, e);
+            }
+        }
+    }
+}
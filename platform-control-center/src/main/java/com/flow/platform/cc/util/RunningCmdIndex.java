@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.util;
+
+import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.Cmd;
+import com.flow.platform.domain.CmdType;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of working RUN_SHELL cmd ids by agent path, to get num of running cmd of agent in O(1)
+ *
+ * @author yang
+ */
+public class RunningCmdIndex {
+
+    private final Map<String, AgentPath> cmdToAgent = new HashMap<>();
+
+    private final Map<AgentPath, Set<String>> agentToCmd = new HashMap<>();
+
+    /**
+     * Cmd is counted if RUN_SHELL in working status and assigned to agent
+     */
+    public static boolean isRunning(Cmd cmd) {
+        AgentPath path = cmd.getAgentPath();
+        return cmd.getType() == CmdType.RUN_SHELL && cmd.isCurrent() && path != null && path.hasName();
+    }
+
+    /**
+     * Update cmd from current status
+     *
+     * @return agent path of cmd before updated, null if cmd not running before
+     */
+    public AgentPath update(Cmd cmd) {
+        if (!isRunning(cmd)) {
+            return put(cmd.getId(), null);
+        }
+
+        // copy agent path since it is mutable in cmd
+        AgentPath path = cmd.getAgentPath();
+        return put(cmd.getId(), new AgentPath(path.getZone(), path.getName()));
+    }
+
+    /**
+     * Set agent path of running cmd, or remove cmd if agent path is null
+     *
+     * @return agent path of cmd before updated
+     */
+    public synchronized AgentPath put(String cmdId, AgentPath path) {
+        AgentPath previous = path == null ? cmdToAgent.remove(cmdId) : cmdToAgent.put(cmdId, path);
+
+        if (previous != null && !previous.equals(path)) {
+            Set<String> cmdIds = agentToCmd.get(previous);
+            cmdIds.remove(cmdId);
+            if (cmdIds.isEmpty()) {
+                agentToCmd.remove(previous);
+            }
+        }
+
+        if (path != null) {
+            agentToCmd.computeIfAbsent(path, key -> new HashSet<>()).add(cmdId);
+        }
+
+        return previous;
+    }
+
+    public synchronized int count(AgentPath path) {
+        Set<String> cmdIds = agentToCmd.get(path);
+        return cmdIds == null ? 0 : cmdIds.size();
+    }
+
+    public synchronized void clear() {
+        cmdToAgent.clear();
+        agentToCmd.clear();
+    }
+}
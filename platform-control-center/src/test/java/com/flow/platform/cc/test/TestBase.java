@@ -21,6 +21,7 @@ import com.flow.platform.cc.dao.AgentDao;
 import com.flow.platform.cc.dao.CmdDao;
 import com.flow.platform.cc.dao.CmdResultDao;
 import com.flow.platform.cc.resource.PropertyResourceLoader;
+import com.flow.platform.cc.service.CmdService;
 import com.flow.platform.cc.util.ZKHelper;
 import com.flow.platform.domain.AgentPath;
 import com.flow.platform.util.zk.ZKClient;
@@ -99,6 +100,9 @@ public abstract class TestBase {
     @Autowired
     protected ZKClient zkClient;
 
+    @Autowired
+    private CmdService cmdService;
+
     @Autowired
     protected Path cmdLogDir;
 
@@ -121,6 +125,7 @@ public abstract class TestBase {
         agentDao.deleteAll();
         cmdDao.deleteAll();
         cmdResultDao.deleteAll();
+        cmdService.loadRunningCmd();
     }
 
     @AfterClass
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.test.cloud;
+
+import com.flow.platform.cloud.InstanceManager;
+import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.Instance;
+import com.flow.platform.domain.Zone;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In memory instance manager without cloud provider for testing
+ *
+ * @author yang
+ */
+public class LocalInstanceManager implements InstanceManager {
+
+    public final static String STATUS_RUNNING = "running";
+
+    private final Map<String, Instance> instances = new ConcurrentHashMap<>();
+
+    private final Set<Instance> cleanList = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String instanceName() {
+        return "local-" + UUID.randomUUID().toString();
+    }
+
+    @Override
+    public Instance find(String name) {
+        return instances.get(name);
+    }
+
+    @Override
+    public Instance find(AgentPath agentPath) {
+        return instances.get(agentPath.getName());
+    }
+
+    @Override
+    public Collection<Instance> instances() {
+        return instances.values();
+    }
+
+    @Override
+    public List<String> batchStartInstance(Zone zone) {
+        List<String> names = new ArrayList<>(zone.getNumOfStart());
+
+        for (int i = 0; i < zone.getNumOfStart(); i++) {
+            LocalInstance instance = new LocalInstance();
+            instance.setId(UUID.randomUUID().toString());
+            instance.setName(instanceName());
+            instance.setStatus(STATUS_RUNNING);
+            instance.setCreatedAt(new Date());
+
+            instances.put(instance.getName(), instance);
+            names.add(instance.getName());
+        }
+
+        return names;
+    }
+
+    @Override
+    public void addToCleanList(Instance instance) {
+        cleanList.add(instance);
+    }
+
+    public Set<Instance> getCleanList() {
+        return cleanList;
+    }
+
+    @Override
+    public void cleanFromProvider(long maxAliveDuration, String status) {
+        long now = System.currentTimeMillis();
+        instances.values().removeIf(instance -> instance.getStatus().equals(status)
+            && now - instance.getCreatedAt().getTime() >= maxAliveDuration * 1000);
+    }
+
+    @Override
+    public void cleanAll() {
+        instances.clear();
+        cleanList.clear();
+    }
+
+    @Override
+    public void cleanInstanceTask() {
+        for (Instance instance : cleanList) {
+            instances.remove(instance.getName());
+        }
+        cleanList.clear();
+    }
+
+    private static class LocalInstance extends Instance {
+
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.test.domain;
+
+import com.flow.platform.cc.domain.AgentPoolForecast;
+import com.flow.platform.cc.test.cloud.LocalInstanceManager;
+import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.CmdInfo;
+import com.flow.platform.domain.CmdType;
+import com.flow.platform.domain.Zone;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class AgentPoolForecastTest {
+
+    private Zone zone;
+
+    private AgentPoolForecast forecast;
+
+    @Before
+    public void init() {
+        zone = new Zone("forecast-zone", "local");
+        zone.setMinPoolSize(1);
+        zone.setMaxPoolSize(10);
+        zone.setInstanceStartupTime(60);
+        zone.setScaleDownDelay(120);
+
+        forecast = new AgentPoolForecast(zone.getName(), 0);
+    }
+
+    @Test
+    public void should_check_cmd_is_demand_of_idle_agent() {
+        Assert.assertTrue(AgentPoolForecast.isDemand(new CmdInfo(zone.getName(), null, CmdType.RUN_SHELL, "ls")));
+        Assert.assertTrue(AgentPoolForecast.isDemand(new CmdInfo(zone.getName(), null, CmdType.CREATE_SESSION, null)));
+        Assert.assertFalse(AgentPoolForecast.isDemand(new CmdInfo(zone.getName(), "agent", CmdType.RUN_SHELL, "ls")));
+        Assert.assertFalse(AgentPoolForecast.isDemand(new CmdInfo(new AgentPath(zone.getName(), null), CmdType.KILL, null)));
+
+        CmdInfo withSession = new CmdInfo(zone.getName(), null, CmdType.RUN_SHELL, "ls");
+        withSession.setSessionId("session-id");
+        Assert.assertFalse(AgentPoolForecast.isDemand(withSession));
+    }
+
+    @Test
+    public void should_keep_min_pool_size_without_demand() {
+        forecast.tick(zone, 60 * 1000);
+        Assert.assertEquals(1, forecast.target(zone));
+        Assert.assertEquals(1, forecast.numOfStart(zone, 0));
+        Assert.assertEquals(0, forecast.numOfStart(zone, 1));
+    }
+
+    @Test
+    public void should_start_instance_for_burst_and_count_provisioning() {
+        // when: 5 cmd queued within 30 seconds
+        for (int i = 0; i < 5; i++) {
+            forecast.onEnqueue();
+        }
+        forecast.tick(zone, 30 * 1000);
+
+        // then: target includes queue depth and predicted arrivals within startup time
+        int target = forecast.target(zone);
+        Assert.assertTrue(target > 5);
+        Assert.assertTrue(target <= zone.getMaxPoolSize());
+
+        // when: start instance from local instance manager
+        LocalInstanceManager instanceManager = new LocalInstanceManager();
+        int numOfStart = forecast.numOfStart(zone, 0);
+        List<String> started = instanceManager.batchStartInstance(zone, numOfStart);
+        forecast.onStarted(started.size(), 30 * 1000);
+
+        // then: should not start again while instances are provisioning
+        Assert.assertEquals(numOfStart, instanceManager.instances().size());
+        Assert.assertEquals(0, forecast.numOfStart(zone, 0));
+
+        // when: agent online
+        forecast.onAgentOnline();
+        Assert.assertEquals(numOfStart - 1, forecast.getNumOfProvisioning());
+
+        // then: provisioning expired if agent not online within twice of startup time
+        forecast.tick(zone, 30 * 1000 + zone.getInstanceStartupTime() * 2000L + 1);
+        Assert.assertEquals(0, forecast.getNumOfProvisioning());
+    }
+
+    @Test
+    public void should_reserve_provisioning_before_instance_started() {
+        for (int i = 0; i < 3; i++) {
+            forecast.onEnqueue();
+        }
+
+        // when: reserve instance to start
+        int numOfStart = forecast.reserveStart(zone, 0, 0);
+        Assert.assertTrue(numOfStart > 0);
+        Assert.assertEquals(numOfStart, forecast.getNumOfProvisioning());
+
+        // then: concurrent evaluation should not start again
+        Assert.assertEquals(0, forecast.reserveStart(zone, 0, 0));
+
+        // when: one instance failed to start
+        forecast.onStartFailed(1);
+
+        // then: the failed one can be started again
+        Assert.assertEquals(numOfStart - 1, forecast.getNumOfProvisioning());
+        Assert.assertEquals(1, forecast.reserveStart(zone, 0, 0));
+    }
+
+    @Test
+    public void should_scale_down_with_hysteresis() {
+        // when: 5 idle agent and target is min pool size
+        Assert.assertEquals(1, forecast.target(zone));
+
+        // then: should not shutdown before scale down delay
+        Assert.assertEquals(0, forecast.numOfShutdown(zone, 5, 0));
+        Assert.assertEquals(0, forecast.numOfShutdown(zone, 5, 60 * 1000));
+
+        // when: agent shortage happen, the delay should be restarted
+        forecast.onShortage();
+        Assert.assertEquals(0, forecast.numOfShutdown(zone, 5, 100 * 1000));
+        Assert.assertEquals(0, forecast.numOfShutdown(zone, 5, 200 * 1000));
+
+        // then: shutdown surplus after scale down delay
+        Assert.assertEquals(4, forecast.numOfShutdown(zone, 5, 220 * 1000));
+    }
+
+    @Test
+    public void should_shutdown_immediately_over_max_pool_size() {
+        Assert.assertEquals(2, forecast.numOfShutdown(zone, 12, 0));
+    }
+
+    @Test
+    public void should_decay_arrival_rate_without_demand() {
+        for (int i = 0; i < 10; i++) {
+            forecast.onEnqueue();
+            forecast.onDequeue();
+        }
+        forecast.tick(zone, 10 * 1000);
+        double rate = forecast.getArrivalRate();
+        Assert.assertTrue(rate > 0);
+
+        forecast.tick(zone, 3600 * 1000);
+        Assert.assertTrue(forecast.getArrivalRate() < rate / 100);
+        Assert.assertEquals(1, forecast.target(zone));
+    }
+}
@@ -30,6 +30,7 @@ import com.flow.platform.cc.test.TestBase;
 import com.flow.platform.cc.util.ZKHelper;
 import com.flow.platform.domain.Agent;
 import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.AgentResume;
 import com.flow.platform.domain.AgentSettings;
 import com.flow.platform.domain.AgentStatus;
 import com.flow.platform.domain.Jsonable;
@@ -39,6 +40,8 @@ import com.flow.platform.util.http.HttpURL;
 import com.github.tomakehurst.wiremock.client.CountMatchingStrategy;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import org.apache.zookeeper.KeeperException;
 import org.junit.Assert;
@@ -203,6 +206,36 @@ public class AgentServiceTest extends TestBase {
         Assert.assertEquals(agent11, agent11Loaded.getPath());
     }
 
+    @Test
+    public void should_report_agents_of_zone_in_batch() throws Throwable {
+        // given: agent with offline status
+        String zoneName = "ut-test-zone-batch";
+        AgentPath offline = new AgentPath(zoneName, "agent-offline");
+        agentService.create(offline, null);
+
+        // when: report online agents of zone
+        List<String> agents = new ArrayList<>();
+        agents.add(offline.getName());
+        for (int i = 0; i < 60; i++) {
+            agents.add("agent-" + i);
+        }
+        agentService.report(zoneName, agents);
+
+        // then: all agents should be idle
+        List<Agent> online = agentService.listForOnline(zoneName);
+        Assert.assertEquals(agents.size(), online.size());
+        for (Agent agent : online) {
+            Assert.assertEquals(AgentStatus.IDLE, agent.getStatus());
+            Assert.assertNotNull(agent.getToken());
+        }
+
+        // when: report again
+        agentService.report(zoneName, agents);
+
+        // then: nothing changed
+        Assert.assertEquals(agents.size(), agentService.list(zoneName).size());
+    }
+
     @Test
     public void should_report_agent_status() throws InterruptedException {
         // given: init zk agent
@@ -222,6 +255,36 @@ public class AgentServiceTest extends TestBase {
         Assert.assertEquals(AgentStatus.BUSY, exit.getStatus());
     }
 
+    @Test
+    public void should_resume_agent_session_after_zk_session_expired() throws Throwable {
+        // given: agent online with session
+        String zoneName = defaultZones.get(0).getName();
+        String agentName = "test-agent-for-resume";
+        String agentPath = ZKHelper.buildPath(zoneName, agentName);
+        zkClient.createEphemeral(agentPath, null);
+        Thread.sleep(500);
+
+        AgentPath pathObj = new AgentPath(zoneName, agentName);
+        Agent agent = agentService.find(pathObj);
+        agent.setSessionId("resume-session-id");
+        agent.setSessionDate(ZonedDateTime.now());
+        agentService.saveWithStatus(agent, AgentStatus.BUSY);
+
+        // when: agent node removed by zk session expired
+        zkClient.delete(agentPath, false);
+        Thread.sleep(500);
+        Assert.assertEquals(AgentStatus.OFFLINE, agentService.find(pathObj).getStatus());
+
+        // then: agent registered again with resume data should keep session and busy status
+        AgentResume resume = new AgentResume("resume-session-id", new HashSet<>());
+        zkClient.createEphemeral(agentPath, resume.toBytes());
+        Thread.sleep(500);
+
+        Agent resumed = agentService.find(pathObj);
+        Assert.assertEquals(AgentStatus.BUSY, resumed.getStatus());
+        Assert.assertEquals("resume-session-id", resumed.getSessionId());
+    }
+
     @Test(expected = AgentErr.NotFoundException.class)
     public void should_raise_not_found_exception_when_report_status() {
         String zoneName = defaultZones.get(0).getName();
@@ -482,6 +482,87 @@ public class CmdServiceTest extends TestBase {
         Assert.assertTrue(Files.exists(Paths.get(cmdLogDir.toString(), originalFilename)));
     }
 
+    @Test
+    public void should_write_cmd_log_by_segments() throws Throwable {
+        // given:
+        String zoneName = defaultZones.get(0).getName();
+        CmdInfo baseInfo = new CmdInfo(zoneName, "test-agent-006", CmdType.RUN_SHELL, "/test.sh");
+        Cmd created = cmdService.create(baseInfo);
+        String fileName = created.getId() + ".out.zip";
+
+        // when: upload first segment
+        MockMultipartFile first = new MockMultipartFile("file", fileName, "application/octet-stream", "hello".getBytes());
+        Assert.assertEquals(5, cmdService.saveLog(created.getId(), 0, false, first));
+
+        // then: segment with offset over received size should be ignored
+        MockMultipartFile missing = new MockMultipartFile("file", fileName, "application/octet-stream", "!".getBytes());
+        Assert.assertEquals(5, cmdService.saveLog(created.getId(), 10, true, missing));
+        Assert.assertFalse(Files.exists(Paths.get(cmdLogDir.toString(), fileName)));
+
+        // when: upload last segment
+        MockMultipartFile last = new MockMultipartFile("file", fileName, "application/octet-stream", " world".getBytes());
+        Assert.assertEquals(11, cmdService.saveLog(created.getId(), 5, true, last));
+
+        // then: full log recorded
+        Path logPath = Paths.get(cmdLogDir.toString(), fileName);
+        Assert.assertEquals("hello world", new String(Files.readAllBytes(logPath)));
+        Assert.assertFalse(Files.exists(Paths.get(cmdLogDir.toString(), created.getId() + ".part")));
+
+        // when: last segment uploaded again by retry
+        Assert.assertEquals(11, cmdService.saveLog(created.getId(), 5, true, last));
+
+        // then: part file should not be created again
+        Assert.assertFalse(Files.exists(Paths.get(cmdLogDir.toString(), created.getId() + ".part")));
+    }
+
+    @Test
+    public void should_delete_log_segments_when_cmd_finished() throws Throwable {
+        // given:
+        String zoneName = defaultZones.get(0).getName();
+        CmdInfo baseInfo = new CmdInfo(zoneName, "test-agent-008", CmdType.RUN_SHELL, "/test.sh");
+        Cmd created = cmdService.create(baseInfo);
+        String fileName = created.getId() + ".out.zip";
+        Path part = Paths.get(cmdLogDir.toString(), created.getId() + ".part");
+
+        MockMultipartFile first = new MockMultipartFile("file", fileName, "application/octet-stream", "hello".getBytes());
+        Assert.assertEquals(5, cmdService.saveLog(created.getId(), 0, false, first));
+        Assert.assertTrue(Files.exists(part));
+
+        // when: cmd killed before the last segment uploaded
+        cmdService.updateStatus(new CmdStatusItem(created.getId(), CmdStatus.KILLED, null, false, false), false);
+
+        // then: uploaded segments should be deleted
+        Assert.assertFalse(Files.exists(part));
+
+        // when: upload segment after cmd finished
+        MockMultipartFile last = new MockMultipartFile("file", fileName, "application/octet-stream", " world".getBytes());
+        Assert.assertEquals(-1, cmdService.saveLog(created.getId(), 5, true, last));
+
+        // then: segment should be rejected
+        Assert.assertFalse(Files.exists(part));
+    }
+
+    @Test
+    public void should_delete_log_segments_when_full_log_uploaded() throws Throwable {
+        // given:
+        String zoneName = defaultZones.get(0).getName();
+        CmdInfo baseInfo = new CmdInfo(zoneName, "test-agent-007", CmdType.RUN_SHELL, "/test.sh");
+        Cmd created = cmdService.create(baseInfo);
+        String fileName = created.getId() + ".out.zip";
+
+        MockMultipartFile first = new MockMultipartFile("file", fileName, "application/octet-stream", "hello".getBytes());
+        Assert.assertEquals(5, cmdService.saveLog(created.getId(), 0, false, first));
+
+        // when: agent fall back to upload full log
+        MockMultipartFile full = new MockMultipartFile("file", fileName, "application/octet-stream", "hello world".getBytes());
+        cmdService.saveLog(created.getId(), full);
+
+        // then: uploaded segments should be deleted
+        Path logPath = Paths.get(cmdLogDir.toString(), fileName);
+        Assert.assertEquals("hello world", new String(Files.readAllBytes(logPath)));
+        Assert.assertFalse(Files.exists(Paths.get(cmdLogDir.toString(), created.getId() + ".part")));
+    }
+
     private Cmd send(CmdInfo info) {
         Cmd cmd = cmdService.create(info);
         cmdDispatchService.dispatch(cmd);
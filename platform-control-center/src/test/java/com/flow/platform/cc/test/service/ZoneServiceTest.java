@@ -18,6 +18,7 @@ package com.flow.platform.cc.test.service;
 
 import com.flow.platform.cc.service.ZoneService;
 import com.flow.platform.cc.test.TestBase;
+import com.flow.platform.cc.test.cloud.LocalInstanceManager;
 import com.flow.platform.domain.Zone;
 import java.util.List;
 import org.junit.Assert;
@@ -48,4 +49,51 @@ public class ZoneServiceTest extends TestBase {
         Assert.assertNotNull(zones);
         Assert.assertTrue(zones.size() >= 4); // 2 for default, 2 for created
     }
+
+    @Test
+    public void should_start_instance_for_forecast_and_wait_for_provisioning() {
+        // given: zone without idle agent
+        Zone zone = new Zone("my-forecast-zone", "local");
+        zone.setMinPoolSize(2);
+        zone.setMaxPoolSize(5);
+        LocalInstanceManager instanceManager = new LocalInstanceManager();
+
+        // when: keep idle agent for min size
+        Assert.assertTrue(zoneService.keepIdleAgentMinSize(zone, instanceManager));
+
+        // then: two instance started and should not start again while agent not online
+        Assert.assertEquals(2, instanceManager.instances().size());
+        Assert.assertEquals(2, zoneService.forecast(zone.getName()).getNumOfProvisioning());
+        Assert.assertFalse(zoneService.keepIdleAgentMinSize(zone, instanceManager));
+    }
+
+    @Test
+    public void should_release_provisioning_if_instance_failed_to_start() {
+        // given: zone without idle agent
+        Zone zone = new Zone("my-failure-zone", "local");
+        zone.setMinPoolSize(2);
+        zone.setMaxPoolSize(5);
+
+        // when: cloud api throws exception
+        Assert.assertTrue(zoneService.keepIdleAgentMinSize(zone, new LocalInstanceManager() {
+            @Override
+            public List<String> batchStartInstance(Zone zone) {
+                throw new IllegalStateException("Cloud api unavailable");
+            }
+        }));
+
+        // then: provisioning reservation should be released
+        Assert.assertEquals(0, zoneService.forecast(zone.getName()).getNumOfProvisioning());
+
+        // when: cloud api returns null
+        Assert.assertTrue(zoneService.keepIdleAgentMinSize(zone, new LocalInstanceManager() {
+            @Override
+            public List<String> batchStartInstance(Zone zone) {
+                return null;
+            }
+        }));
+
+        // then: provisioning reservation should be released
+        Assert.assertEquals(0, zoneService.forecast(zone.getName()).getNumOfProvisioning());
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.test.util;
+
+import com.flow.platform.cc.util.ExpiryIndex;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class ExpiryIndexTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final List<String> expired = new CopyOnWriteArrayList<>();
+
+    @After
+    public void after() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void should_fire_latest_deadline_only() throws Throwable {
+        CountDownLatch latch = new CountDownLatch(1);
+        ExpiryIndex<String> index = new ExpiryIndex<>(scheduler, key -> {
+            expired.add(key);
+            latch.countDown();
+        });
+
+        // when: register deadline and replace it
+        index.register("agent-1", 100);
+        index.register("agent-1", 300);
+        Assert.assertEquals(1, index.size());
+
+        // then: fired once by the latest deadline
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        Assert.assertEquals(1, expired.size());
+        Assert.assertFalse(index.contains("agent-1"));
+    }
+
+    @Test
+    public void should_not_fire_canceled_deadline() throws Throwable {
+        ExpiryIndex<String> index = new ExpiryIndex<>(scheduler, expired::add);
+
+        index.register("agent-1", 100);
+        index.cancel("agent-1");
+
+        Thread.sleep(300);
+        Assert.assertEquals(0, expired.size());
+        Assert.assertEquals(0, index.size());
+    }
+
+    @Test
+    public void should_not_replace_deadline_if_absent_only() throws Throwable {
+        CountDownLatch latch = new CountDownLatch(1);
+        ExpiryIndex<String> index = new ExpiryIndex<>(scheduler, key -> {
+            expired.add(key);
+            latch.countDown();
+        });
+
+        Assert.assertTrue(index.registerIfAbsent("zone", 100));
+        Assert.assertFalse(index.registerIfAbsent("zone", 10000));
+
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, expired.size());
+        Assert.assertTrue(index.registerIfAbsent("zone", 10000));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.cc.test.util;
+
+import com.flow.platform.cc.util.RunningCmdIndex;
+import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.Cmd;
+import com.flow.platform.domain.CmdStatus;
+import com.flow.platform.domain.CmdType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class RunningCmdIndexTest {
+
+    private final RunningCmdIndex index = new RunningCmdIndex();
+
+    @Test
+    public void should_count_running_cmd_by_agent() {
+        AgentPath agent = new AgentPath("zone", "agent");
+
+        // when: run shell cmd without agent name
+        Cmd cmd = new Cmd("zone", null, CmdType.RUN_SHELL, "ls");
+        cmd.setId("cmd-1");
+        cmd.setStatus(CmdStatus.PENDING);
+        Assert.assertNull(index.update(cmd));
+        Assert.assertEquals(0, index.count(agent));
+
+        // when: agent assigned to cmd
+        cmd.setAgentPath(new AgentPath("zone", "agent"));
+        index.update(cmd);
+        index.update(cmd);
+        Assert.assertEquals(1, index.count(agent));
+
+        // when: other cmd type should not be counted
+        Cmd kill = new Cmd("zone", "agent", CmdType.KILL, null);
+        kill.setId("cmd-2");
+        kill.setStatus(CmdStatus.PENDING);
+        index.update(kill);
+        Assert.assertEquals(1, index.count(agent));
+
+        // then: agent is idle after cmd finished
+        cmd.setStatus(CmdStatus.LOGGED);
+        Assert.assertEquals(agent, index.update(cmd));
+        Assert.assertEquals(0, index.count(agent));
+    }
+
+    @Test
+    public void should_revert_cmd_to_previous_agent() {
+        AgentPath agent = new AgentPath("zone", "agent");
+
+        Cmd cmd = new Cmd("zone", "agent", CmdType.RUN_SHELL, "ls");
+        cmd.setId("cmd-1");
+        cmd.setStatus(CmdStatus.RUNNING);
+        index.update(cmd);
+
+        cmd.setStatus(CmdStatus.EXCEPTION);
+        AgentPath previous = index.update(cmd);
+        Assert.assertEquals(0, index.count(agent));
+
+        // when: revert as transaction rollback
+        index.put(cmd.getId(), previous);
+        Assert.assertEquals(1, index.count(agent));
+    }
+}
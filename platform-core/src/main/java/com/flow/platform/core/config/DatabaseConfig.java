@@ -16,6 +16,9 @@
 
 package com.flow.platform.core.config;
 
+import com.flow.platform.core.dao.adaptor.CompactMapAdaptor;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportResource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -28,4 +31,11 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableTransactionManagement
 public class DatabaseConfig {
 
+    @Value("${db.map.compress.enable:true}")
+    private Boolean isMapCompressEnabled;
+
+    @PostConstruct
+    public void init() {
+        CompactMapAdaptor.setCompressEnabled(isMapCompressEnabled);
+    }
 }
\ No newline at end of file
@@ -16,15 +16,22 @@
 
 package com.flow.platform.core.dao;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import org.hibernate.Cache;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -33,6 +40,22 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public abstract class AbstractBaseDao<K extends Serializable, T> implements BaseDao<K, T> {
 
+    /**
+     * Num of object to flush in batch if hibernate.jdbc.batch_size not defined
+     */
+    private final static int DEFAULT_BATCH_SIZE = 50;
+
+    /**
+     * Second level cache region for query results of reference data
+     */
+    public final static String QUERY_CACHE_REGION = "reference.query";
+
+    @FunctionalInterface
+    public interface StatelessExecutable {
+
+        void execute(StatelessSession session);
+    }
+
     @FunctionalInterface
     public interface Executable<O> {
 
@@ -55,6 +78,33 @@ public abstract class AbstractBaseDao<K extends Serializable, T> implements Base
         return sessionFactory.getCurrentSession();
     }
 
+    /**
+     * Execute in stateless session with its own transaction
+     */
+    public void executeStateless(StatelessExecutable ex) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        session.setJdbcBatchSize(batchSize());
+        Transaction transaction = session.beginTransaction();
+
+        try {
+            ex.execute(session);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Num of object to flush in batch from hibernate.jdbc.batch_size
+     */
+    protected int batchSize() {
+        int batchSize = sessionFactory.getSessionFactoryOptions().getJdbcBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
     protected abstract Class<T> getEntityClass();
 
     protected abstract String getKeyName();
@@ -126,6 +176,85 @@ public abstract class AbstractBaseDao<K extends Serializable, T> implements Base
         });
     }
 
+    @Override
+    public List<T> saveAll(final Collection<T> objs) {
+        final int batchSize = batchSize();
+        return execute(session -> {
+            List<T> saved = new ArrayList<>(objs.size());
+            for (T obj : objs) {
+                session.save(obj);
+                saved.add(obj);
+
+                if (saved.size() % batchSize == 0) {
+                    session.flush();
+                }
+            }
+            return saved;
+        });
+    }
+
+    @Override
+    public void updateAll(final Collection<T> objs) {
+        final int batchSize = batchSize();
+        execute(session -> {
+            int count = 0;
+            for (T obj : objs) {
+                session.update(obj);
+
+                if (++count % batchSize == 0) {
+                    session.flush();
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void saveAllStateless(final Collection<T> objs) {
+        executeStateless(session -> {
+            for (T obj : objs) {
+                session.insert(obj);
+            }
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateAllStateless(final Collection<T> objs) {
+        executeStateless(session -> {
+            for (T obj : objs) {
+                session.update(obj);
+            }
+        });
+    }
+
+    @Override
+    public int deleteAll(final Condition<T> condition) {
+        return execute(session -> {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaDelete<T> delete = builder.createCriteriaDelete(getEntityClass());
+            Root<T> root = delete.from(getEntityClass());
+            delete.where(condition.where(builder, root));
+            return session.createQuery(delete).executeUpdate();
+        });
+    }
+
+    @Override
+    public int executeUpdate(final String hql, final Map<String, Object> params) {
+        return execute(session -> {
+            Query<?> query = session.createQuery(hql);
+            for (Map.Entry<String, Object> entry : params.entrySet()) {
+                if (entry.getValue() instanceof Collection) {
+                    query.setParameterList(entry.getKey(), (Collection<?>) entry.getValue());
+                    continue;
+                }
+                query.setParameter(entry.getKey(), entry.getValue());
+            }
+            return query.executeUpdate();
+        });
+    }
+
     @Override
     public int deleteAll() {
         return execute(session -> {
@@ -136,6 +265,27 @@ public abstract class AbstractBaseDao<K extends Serializable, T> implements Base
         });
     }
 
+    @Override
+    public void evict(final K key) {
+        sessionFactory.getCache().evictEntity(getEntityClass(), key);
+    }
+
+    @Override
+    public void evictAll() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityRegion(getEntityClass());
+        cache.evictQueryRegion(QUERY_CACHE_REGION);
+    }
+
+    /**
+     * Cache query result in second level cache, only for entity mapped with cache region
+     */
+    protected <R> Query<R> cacheable(Query<R> query) {
+        query.setCacheable(true);
+        query.setCacheRegion(QUERY_CACHE_REGION);
+        return query;
+    }
+
     @Override
     public List<T> list() {
         return execute((Session session) -> {
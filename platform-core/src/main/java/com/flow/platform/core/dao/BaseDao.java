@@ -19,6 +19,10 @@ package com.flow.platform.core.dao;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import org.hibernate.Session;
 
 /**
@@ -26,6 +30,15 @@ import org.hibernate.Session;
  */
 public interface BaseDao<K extends Serializable, T> {
 
+    /**
+     * Where clause for criteria query, update and delete
+     */
+    @FunctionalInterface
+    interface Condition<T> {
+
+        Predicate where(CriteriaBuilder builder, Root<T> root);
+    }
+
     Session getSession();
 
     List<T> list(final Collection<K> keys);
@@ -40,12 +53,56 @@ public interface BaseDao<K extends Serializable, T> {
 
     void delete(final T obj);
 
+    /**
+     * Save objects in one transaction with jdbc batch
+     */
+    List<T> saveAll(final Collection<T> objs);
+
+    /**
+     * Update objects in one transaction with jdbc batch
+     */
+    void updateAll(final Collection<T> objs);
+
+    /**
+     * Insert objects by stateless session with jdbc batch, for append only data which not read back in session
+     */
+    void saveAllStateless(final Collection<T> objs);
+
+    /**
+     * Update objects by stateless session with jdbc batch
+     */
+    void updateAllStateless(final Collection<T> objs);
+
+    /**
+     * Bulk delete by condition
+     *
+     * @return num of deleted rows
+     */
+    int deleteAll(final Condition<T> condition);
+
+    /**
+     * Bulk update or delete by hql with named parameters
+     *
+     * @return num of affected rows
+     */
+    int executeUpdate(final String hql, final Map<String, Object> params);
+
     List<T> list();
 
     /**
      * Delete all data of table. should only used for test
      */
     int deleteAll();
+
+    /**
+     * Evict entity from second level cache
+     */
+    void evict(final K key);
+
+    /**
+     * Evict all entities and cached query results of entity from second level cache
+     */
+    void evictAll();
 }
 
 
@@ -18,13 +18,20 @@ package com.flow.platform.core.dao.adaptor;
 
 import com.flow.platform.domain.Jsonable;
 import com.flow.platform.util.ObjectUtil;
+import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
 import java.io.Serializable;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Set;
 import org.hibernate.HibernateException;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.usertype.UserType;
@@ -38,6 +45,26 @@ public abstract class BaseAdaptor implements UserType {
 
     public static final Gson GSON = Jsonable.GSON_CONFIG;
 
+    /**
+     * Types which can be used as snapshot without copy
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = ImmutableSet.of(
+        String.class,
+        Boolean.class,
+        Character.class,
+        Byte.class,
+        Short.class,
+        Integer.class,
+        Long.class,
+        Float.class,
+        Double.class,
+        BigInteger.class,
+        BigDecimal.class,
+        Instant.class,
+        LocalDateTime.class,
+        ZonedDateTime.class
+    );
+
     protected abstract Type getTargetType();
 
     @Override
@@ -108,7 +135,10 @@ public abstract class BaseAdaptor implements UserType {
 
     @Override
     public Object deepCopy(Object value) throws HibernateException {
-        return ObjectUtil.deepCopy(value);
+        if (value == null || isImmutable(value)) {
+            return value;
+        }
+        return copy(value);
     }
 
     @Override
@@ -131,6 +161,20 @@ public abstract class BaseAdaptor implements UserType {
         return deepCopy(original);
     }
 
+    /**
+     * Copy mutable value for snapshot, java serialization is used by default
+     */
+    protected Object copy(Object value) {
+        return ObjectUtil.deepCopy(value);
+    }
+
+    /**
+     * Copy value through json of GSON, the copy is exactly the same as persisted content
+     */
+    protected Object copyByJson(Object value) {
+        return GSON.fromJson(GSON.toJson(value), value.getClass());
+    }
+
     protected Object jsonToObject(String json) {
         return GSON.fromJson(json, getTargetType());
     }
@@ -138,4 +182,8 @@ public abstract class BaseAdaptor implements UserType {
     protected String objectToJson(Object object) {
         return GSON.toJson(object);
     }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof Enum || IMMUTABLE_TYPES.contains(value.getClass());
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.core.dao.adaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.hibernate.HibernateException;
+
+/**
+ * Map adaptor for large env map like cmd output, the json will be gzip compressed and base64 encoded
+ * with COMPRESSED_PREFIX if over COMPRESS_THRESHOLD, the plain json is still readable
+ *
+ * Compressed write can be disabled by db.map.compress.enable property for rollback to the release
+ * which cannot read it, the compressed value is always readable
+ *
+ * @author yang
+ */
+public class CompactMapAdaptor extends MapAdaptor {
+
+    public final static String COMPRESSED_PREFIX = "gz:";
+
+    public final static int COMPRESS_THRESHOLD = 1024;
+
+    private final static Charset CHARSET = Charset.forName("UTF-8");
+
+    private final static int BUFFER_SIZE = 4096;
+
+    // adaptor is created by hibernate, the switch applied from spring property by DatabaseConfig
+    private static volatile boolean compressEnabled = true;
+
+    public static void setCompressEnabled(boolean enabled) {
+        compressEnabled = enabled;
+    }
+
+    @Override
+    protected Object jsonToObject(String json) {
+        if (json.startsWith(COMPRESSED_PREFIX)) {
+            json = decompress(json.substring(COMPRESSED_PREFIX.length()));
+        }
+        return super.jsonToObject(json);
+    }
+
+    @Override
+    protected String objectToJson(Object object) {
+        String json = super.objectToJson(object);
+        if (!compressEnabled || json.length() < COMPRESS_THRESHOLD) {
+            return json;
+        }
+        return COMPRESSED_PREFIX + compress(json);
+    }
+
+    private static String compress(String json) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(json.length() / 4);
+        try (OutputStream gzip = new GZIPOutputStream(bos, BUFFER_SIZE)) {
+            gzip.write(json.getBytes(CHARSET));
+        } catch (IOException e) {
+            throw new HibernateException("Unable to compress json", e);
+        }
+        return Base64.getEncoder().encodeToString(bos.toByteArray());
+    }
+
+    private static String decompress(String base64) {
+        byte[] compressed = Base64.getDecoder().decode(base64);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(compressed.length * 4);
+
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed), BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = gzip.read(buffer)) != -1) {
+                bos.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new HibernateException("Unable to decompress json", e);
+        }
+
+        return new String(bos.toByteArray(), CHARSET);
+    }
+}
@@ -18,6 +18,7 @@ package com.flow.platform.core.dao.adaptor;
 
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -30,6 +31,14 @@ public class MapAdaptor extends BaseAdaptor {
         return Map.class;
     }
 
+    /**
+     * The key and value of map are immutable string
+     */
+    @Override
+    protected Object copy(Object value) {
+        return new LinkedHashMap<>((Map<?, ?>) value);
+    }
+
     @Override
     protected Type getTargetType() {
         TypeToken<Map<String, String>> typeToken = new TypeToken<Map<String, String>>() {};
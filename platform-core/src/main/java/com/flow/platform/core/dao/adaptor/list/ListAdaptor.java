@@ -19,6 +19,7 @@ package com.flow.platform.core.dao.adaptor.list;
 import com.flow.platform.core.dao.adaptor.BaseAdaptor;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,6 +32,14 @@ public class ListAdaptor extends BaseAdaptor {
         return List.class;
     }
 
+    /**
+     * The item of list is string or throwable which not changed after created
+     */
+    @Override
+    protected Object copy(Object value) {
+        return new ArrayList<>((List<?>) value);
+    }
+
     @Override
     protected Type getTargetType() {
         TypeToken<List<String>> typeToken = new TypeToken<List<String>>() {};
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.core.test;
+
+import com.flow.platform.core.dao.adaptor.MapAdaptor;
+import com.flow.platform.core.dao.adaptor.list.ListAdaptor;
+import com.flow.platform.domain.AgentPath;
+import com.flow.platform.domain.CmdStatus;
+import com.google.common.collect.Lists;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class AdaptorCopyTest {
+
+    @Test
+    public void should_not_copy_immutable_value() {
+        MapAdaptor adaptor = new MapAdaptor();
+
+        String json = "{}";
+        Assert.assertSame(json, adaptor.deepCopy(json));
+        Assert.assertSame(CmdStatus.SENT, adaptor.deepCopy(CmdStatus.SENT));
+        Assert.assertNull(adaptor.deepCopy(null));
+    }
+
+    @Test
+    public void should_copy_map_and_list_by_type() {
+        Map<String, String> map = new HashMap<>();
+        map.put("FLOW_OUTPUT", "hello");
+
+        Object mapCopy = new MapAdaptor().deepCopy(map);
+        Assert.assertNotSame(map, mapCopy);
+        Assert.assertEquals(map, mapCopy);
+
+        List<String> list = Lists.newArrayList("FLOW_", "GIT_");
+        Object listCopy = new ListAdaptor().deepCopy(list);
+        Assert.assertNotSame(list, listCopy);
+        Assert.assertEquals(list, listCopy);
+    }
+
+    @Test
+    public void should_copy_by_json() {
+        AgentPath path = new AgentPath("zone", "agent");
+
+        Object copy = new JsonCopyAdaptor().deepCopy(path);
+        Assert.assertNotSame(path, copy);
+        Assert.assertEquals(path, copy);
+    }
+
+    private static class JsonCopyAdaptor extends MapAdaptor {
+
+        @Override
+        protected Object copy(Object value) {
+            return copyByJson(value);
+        }
+    }
+}
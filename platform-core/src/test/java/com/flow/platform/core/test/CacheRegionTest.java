@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.core.test;
+
+import com.flow.platform.core.dao.AbstractBaseDao;
+import net.sf.ehcache.CacheManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class CacheRegionTest {
+
+    @Test
+    public void should_load_local_cache_regions_for_reference_data() throws Throwable {
+        CacheManager manager = CacheManager.newInstance(getClass().getResource("/ehcache-hibernate.xml"));
+
+        try {
+            Assert.assertTrue(manager.cacheExists(AbstractBaseDao.QUERY_CACHE_REGION));
+            Assert.assertTrue(manager.cacheExists("reference.flow"));
+            Assert.assertTrue(manager.cacheExists("reference.credential"));
+            Assert.assertTrue(manager.cacheExists("reference.role"));
+            Assert.assertTrue(manager.cacheExists("reference.permission"));
+            Assert.assertTrue(manager.cacheExists("reference.user_flow"));
+
+            // update timestamps region should never expire
+            Assert.assertTrue(manager.getCache("org.hibernate.cache.spi.UpdateTimestampsCache")
+                .getCacheConfiguration().isEternal());
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
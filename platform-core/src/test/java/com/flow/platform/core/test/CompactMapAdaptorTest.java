@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.core.test;
+
+import com.flow.platform.core.dao.adaptor.CompactMapAdaptor;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class CompactMapAdaptorTest {
+
+    private final CompactMapAdaptorForTest adaptor = new CompactMapAdaptorForTest();
+
+    @After
+    public void after() {
+        CompactMapAdaptor.setCompressEnabled(true);
+    }
+
+    @Test
+    public void should_keep_small_map_as_plain_json() {
+        Map<String, String> output = new HashMap<>();
+        output.put("FLOW_OUTPUT", "hello");
+
+        String stored = adaptor.toStored(output);
+        Assert.assertTrue(stored.startsWith("{"));
+        Assert.assertEquals(output, adaptor.fromStored(stored));
+    }
+
+    @Test
+    public void should_keep_large_map_as_plain_json_if_compress_disabled() {
+        CompactMapAdaptor.setCompressEnabled(false);
+        Map<String, String> output = largeMap();
+
+        String stored = adaptor.toStored(output);
+        Assert.assertTrue(stored.startsWith("{"));
+        Assert.assertEquals(output, adaptor.fromStored(stored));
+    }
+
+    @Test
+    public void should_compress_large_map_and_read_back() {
+        Map<String, String> output = largeMap();
+
+        String stored = adaptor.toStored(output);
+        Assert.assertTrue(stored.startsWith(CompactMapAdaptor.COMPRESSED_PREFIX));
+        Assert.assertEquals(output, adaptor.fromStored(stored));
+
+        // the compressed should be smaller than plain json
+        Assert.assertTrue(stored.length() < adaptor.plainJson(output).length());
+    }
+
+    @Test
+    public void should_copy_map_without_serialization() {
+        Map<String, String> output = new HashMap<>();
+        output.put("FLOW_OUTPUT", "hello");
+
+        Object copy = adaptor.deepCopy(output);
+        Assert.assertNotSame(output, copy);
+        Assert.assertEquals(output, copy);
+        Assert.assertNull(adaptor.deepCopy(null));
+    }
+
+    private static Map<String, String> largeMap() {
+        Map<String, String> output = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            output.put("FLOW_OUTPUT_" + i, "value of output env " + i);
+        }
+        return output;
+    }
+
+    private static class CompactMapAdaptorForTest extends CompactMapAdaptor {
+
+        String toStored(Object value) {
+            return objectToJson(value);
+        }
+
+        Object fromStored(String value) {
+            return jsonToObject(value);
+        }
+
+        String plainJson(Object value) {
+            return GSON.toJson(value);
+        }
+    }
+}
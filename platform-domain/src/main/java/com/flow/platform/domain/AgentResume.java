@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.domain;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Agent state written to its zookeeper node on registration,
+ * to resume the session and running cmd after zookeeper session expired
+ *
+ * @author yang
+ */
+public class AgentResume extends Jsonable {
+
+    // last known session id of agent
+    private String sessionId;
+
+    // id of cmd still running on agent
+    private Set<String> running = new HashSet<>();
+
+    public AgentResume() {
+    }
+
+    public AgentResume(String sessionId, Set<String> running) {
+        this.sessionId = sessionId;
+        this.running = running;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public Set<String> getRunning() {
+        return running;
+    }
+
+    public void setRunning(Set<String> running) {
+        this.running = running;
+    }
+
+    /**
+     * Has nothing to resume, ex: agent process restarted
+     */
+    public boolean isEmpty() {
+        return sessionId == null && (running == null || running.isEmpty());
+    }
+}
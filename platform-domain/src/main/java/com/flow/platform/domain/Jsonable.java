@@ -18,11 +18,20 @@ package com.flow.platform.domain;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -61,6 +70,21 @@ public abstract class Jsonable implements Serializable {
         .registerTypeAdapter(ZonedDateTime.class, ZONED_DATE_TIME_TYPE_ADAPTER)
         .create();
 
+    public final static Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    private final static int BUFFER_SIZE = 1024;
+
+    /**
+     * Buffer larger than it will not be kept by thread
+     */
+    private final static int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Reusable output buffer per thread for toBytes
+     */
+    private final static ThreadLocal<ByteArrayOutputStream> OUTPUT_BUFFER =
+        ThreadLocal.withInitial(() -> new ByteArrayOutputStream(BUFFER_SIZE));
+
     public static <T extends Jsonable> T parse(String json, Class<T> tClass) {
         return GSON_CONFIG.fromJson(json, tClass);
     }
@@ -70,11 +94,19 @@ public abstract class Jsonable implements Serializable {
     }
 
     public static <T extends Jsonable> T parse(byte[] bytes, Class<T> tClass) {
-        return GSON_CONFIG.fromJson(new String(bytes), tClass);
+        return parse(new ByteArrayInputStream(bytes), tClass);
     }
 
     public static <T extends Jsonable> T[] parseArray(byte[] bytes, Class<T[]> tClass) {
-        return GSON_CONFIG.fromJson(new String(bytes), tClass);
+        return parse(new ByteArrayInputStream(bytes), tClass);
+    }
+
+    /**
+     * Parse json from utf-8 stream without intermediate string, the stream will not be closed
+     */
+    public static <T> T parse(InputStream stream, Type type) {
+        JsonReader reader = GSON_CONFIG.newJsonReader(new InputStreamReader(stream, DEFAULT_CHARSET));
+        return GSON_CONFIG.fromJson(reader, type);
     }
 
     public String toJson() {
@@ -82,6 +114,27 @@ public abstract class Jsonable implements Serializable {
     }
 
     public byte[] toBytes() {
-        return toJson().getBytes();
+        ByteArrayOutputStream buffer = OUTPUT_BUFFER.get();
+        buffer.reset();
+
+        try {
+            writeTo(buffer);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        } finally {
+            if (buffer.size() > MAX_POOLED_BUFFER_SIZE) {
+                OUTPUT_BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Write json as utf-8 to stream without intermediate string, the stream will not be closed
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        JsonWriter writer = GSON_CONFIG.newJsonWriter(new OutputStreamWriter(stream, DEFAULT_CHARSET));
+        GSON_CONFIG.toJson(this, getClass(), writer);
+        writer.flush();
     }
 }
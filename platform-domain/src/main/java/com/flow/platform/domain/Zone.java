@@ -71,6 +71,16 @@ public class Zone extends Jsonable {
      */
     private Integer defaultCmdTimeout = 600;
 
+    /**
+     * Expected seconds from instance started to agent online, for idle agent forecast
+     */
+    private Integer instanceStartupTime = 120;
+
+    /**
+     * Seconds of idle agent surplus kept before shutdown agent which over forecast target
+     */
+    private Integer scaleDownDelay = 300;
+
     /**
      * Extra settings for zone
      */
@@ -156,6 +166,22 @@ public class Zone extends Jsonable {
         this.defaultCmdTimeout = defaultCmdTimeout;
     }
 
+    public Integer getInstanceStartupTime() {
+        return instanceStartupTime;
+    }
+
+    public void setInstanceStartupTime(Integer instanceStartupTime) {
+        this.instanceStartupTime = instanceStartupTime;
+    }
+
+    public Integer getScaleDownDelay() {
+        return scaleDownDelay;
+    }
+
+    public void setScaleDownDelay(Integer scaleDownDelay) {
+        this.scaleDownDelay = scaleDownDelay;
+    }
+
     public Map<String, String> getSettings() {
         return settings;
     }
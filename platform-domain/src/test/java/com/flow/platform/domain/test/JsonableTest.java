@@ -17,6 +17,12 @@
 package com.flow.platform.domain.test;
 
 import com.flow.platform.domain.Agent;
+import com.flow.platform.domain.Cmd;
+import com.flow.platform.domain.CmdInfo;
+import com.flow.platform.domain.CmdType;
+import com.flow.platform.domain.Jsonable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -36,4 +42,37 @@ public class JsonableTest {
         Agent fromJson = Agent.parse(jsonString, Agent.class);
         Assert.assertNotNull(fromJson);
     }
+
+    @Test
+    public void should_convert_to_bytes_and_parse_back() {
+        // given: cmd with non ascii content
+        CmdInfo info = new CmdInfo("zone", "agent", CmdType.RUN_SHELL, "echo 你好");
+
+        // when:
+        byte[] bytes = info.toBytes();
+        Assert.assertArrayEquals(info.toJson().getBytes(Jsonable.DEFAULT_CHARSET), bytes);
+
+        // then: the pooled buffer should not affect next bytes
+        Assert.assertArrayEquals(bytes, info.toBytes());
+
+        CmdInfo fromBytes = Jsonable.parse(bytes, CmdInfo.class);
+        Assert.assertEquals(info.getCmd(), fromBytes.getCmd());
+        Assert.assertEquals(info.getAgentPath(), fromBytes.getAgentPath());
+    }
+
+    @Test
+    public void should_write_to_stream_and_parse_from_stream() throws Throwable {
+        Cmd cmd = new Cmd("zone", "agent", CmdType.RUN_SHELL, "ls");
+        cmd.setId("cmd-id");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        cmd.writeTo(output);
+
+        Cmd fromStream = Jsonable.parse(new ByteArrayInputStream(output.toByteArray()), Cmd.class);
+        Assert.assertEquals(cmd, fromStream);
+        Assert.assertEquals("ls", fromStream.getCmd());
+
+        Cmd[] array = Jsonable.parseArray(("[" + cmd.toJson() + "]").getBytes(), Cmd[].class);
+        Assert.assertEquals(1, array.length);
+    }
 }
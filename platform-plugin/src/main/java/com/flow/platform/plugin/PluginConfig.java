@@ -16,6 +16,7 @@
 
 package com.flow.platform.plugin;
 
+import com.flow.platform.plugin.util.docker.DockerBuildCache;
 import com.flow.platform.util.http.HttpURL;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -40,6 +41,8 @@ public class PluginConfig {
 
     private final static ThreadPoolTaskExecutor executor = initExecutor();
 
+    private final static String BUILD_CACHE = "build-cache";
+
     @Value("${api.git.cache}")
     private String gitCloneCache;
 
@@ -67,6 +70,15 @@ public class PluginConfig {
         }
     }
 
+    @Bean
+    public DockerBuildCache dockerBuildCache() {
+        try {
+            return new DockerBuildCache(Files.createDirectories(Paths.get(gitCloneCache, BUILD_CACHE)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Bean
     public String pluginSourceUrl() {
         return HttpURL.build(pluginRepoUrl).toString();
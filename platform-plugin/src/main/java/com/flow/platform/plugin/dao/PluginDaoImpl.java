@@ -24,27 +24,23 @@ import com.flow.platform.util.http.HttpClient;
 import com.flow.platform.util.http.HttpResponse;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
-import com.google.common.collect.Sets.SetView;
 import com.google.common.io.Files;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -58,16 +54,25 @@ public class PluginDaoImpl implements PluginDao {
 
     private final static String PLUGIN_STORE_FILE = "plugin_cache.json";
 
+    /**
+     * Append only change log of plugin after store file dumped
+     */
+    private final static String PLUGIN_CHANGE_LOG_FILE = "plugin_cache.log";
+
+    /**
+     * Dump to store file and reset change log if num of change over it
+     */
+    private final static int COMPACT_THRESHOLD = 200;
+
     private final static Logger LOGGER = new Logger(PluginDao.class);
 
     private final static Gson GSON = new GsonBuilder().create();
 
-    private Map<String, Plugin> pluginCache = new ConcurrentHashMap<>();
+    private final PluginIndex pluginIndex = new PluginIndex();
 
-    /**
-     * Unique label list
-     */
-    private Set<String> allLabels = Collections.emptySet();
+    private final Object storeLock = new Object();
+
+    private int numOfChanges = 0;
 
     @Autowired
     private Path gitWorkspace;
@@ -77,9 +82,12 @@ public class PluginDaoImpl implements PluginDao {
 
     private Path storePath;
 
+    private Path changeLogPath;
+
     @PostConstruct
     private void init() {
         this.storePath = Paths.get(gitWorkspace.toString(), PLUGIN_STORE_FILE);
+        this.changeLogPath = Paths.get(gitWorkspace.toString(), PLUGIN_CHANGE_LOG_FILE);
         load();
     }
 
@@ -87,17 +95,13 @@ public class PluginDaoImpl implements PluginDao {
     public void refresh() {
         List<Plugin> plugins = doFetchPlugins();
 
-        allLabels = new HashSet<>(plugins.size() * 2);
-
         for (Plugin plugin : plugins) {
-            allLabels.addAll(plugin.getLabels());
-
-            Plugin cached = pluginCache.get(plugin.getName());
+            Plugin cached = pluginIndex.get(plugin.getName());
 
             // only update no plugins
             if (Objects.isNull(cached)) {
                 plugin.setStatus(PluginStatus.PENDING);
-                pluginCache.put(plugin.getName(), plugin);
+                pluginIndex.put(plugin);
                 continue;
             }
 
@@ -109,6 +113,7 @@ public class PluginDaoImpl implements PluginDao {
             cached.setLabels(plugin.getLabels());
             cached.setDescription(plugin.getDescription());
             cached.setLatestCommit(plugin.getLatestCommit());
+            pluginIndex.put(cached);
         }
 
         dump();
@@ -116,59 +121,23 @@ public class PluginDaoImpl implements PluginDao {
 
     @Override
     public Plugin get(String name) {
-        return pluginCache.get(name);
+        return pluginIndex.get(name);
     }
 
     @Override
     public Set<Plugin> list(Set<PluginStatus> status, String keyword, Set<String> labels) {
-        final Set<Plugin> list = new HashSet<>(pluginCache.values());
-
-        // filter for status
-        iteratorNext(list, (iterator, plugin) -> {
-            if (Objects.isNull(status)) {
-                return;
-            }
-
-            if (!status.contains(plugin.getStatus())) {
-                iterator.remove();
-            }
-        });
-
-        // filter for labels
-        iteratorNext(list, (iterator, plugin) -> {
-            if (Objects.isNull(labels)) {
-                return;
-            }
-
-            SetView<String> intersection = Sets.intersection(labels, plugin.getLabels());
-            if (intersection.size() == 0) {
-                iterator.remove();
-            }
-        });
-
-        // filter for keyword
-        iteratorNext(list, (iterator, plugin) -> {
-            if (Objects.isNull(keyword)) {
-                return;
-            }
-
-            if (!plugin.getName().contains(keyword) && !plugin.getDescription().contains(keyword)) {
-                list.add(plugin);
-                iterator.remove();
-            }
-        });
-
-        return list;
+        return pluginIndex.find(status, keyword, labels);
     }
 
     @Override
     public Set<String> labels() {
-        return ImmutableSet.<String>builder().addAll(allLabels).build();
+        return ImmutableSet.copyOf(pluginIndex.labels());
     }
 
     @Override
     public Plugin update(Plugin plugin) {
-        pluginCache.put(plugin.getName(), plugin);
+        pluginIndex.put(plugin);
+        appendChange(plugin);
         return plugin;
     }
 
@@ -177,35 +146,92 @@ public class PluginDaoImpl implements PluginDao {
         Type type = new TypeToken<Map<String, Plugin>>() {
         }.getType();
 
-        File file = storePath.toFile();
-        if (!file.exists()) {
-            return;
-        }
+        synchronized (storeLock) {
+            pluginIndex.clear();
+            numOfChanges = 0;
+
+            File file = storePath.toFile();
+            if (file.exists()) {
+                try {
+                    String rawData = Files.toString(file, Charsets.UTF_8);
+                    Map<String, Plugin> plugins = GSON.fromJson(rawData, type);
+                    for (Plugin plugin : plugins.values()) {
+                        pluginIndex.put(plugin);
+                    }
+                    LOGGER.trace("Plugin data been loaded from path: " + file);
+                } catch (Throwable e) {
+                    LOGGER.warn("Unable to load plugin data: " + e.getMessage());
+                }
+            }
 
-        try {
-            String rawData = Files.toString(file, Charsets.UTF_8);
-            pluginCache = GSON.fromJson(rawData, type);
-            LOGGER.trace("Plugin data been loaded from path: " + file);
-        } catch (Throwable e) {
-            LOGGER.warn("Unable to load plugin data: " + e.getMessage());
+            replayChanges();
         }
     }
 
     @Override
     public void dump() {
-        try {
-            Files.write(GSON.toJson(pluginCache).getBytes(), storePath.toFile());
-            LOGGER.trace("Plugin data been dumped to path: " + storePath);
-        } catch (IOException e) {
-            throw new PluginException(e.getMessage());
+        synchronized (storeLock) {
+            try {
+                // write to tmp file and replace store file, then reset change log
+                Path tmpPath = Paths.get(storePath.toString() + ".tmp");
+                Files.write(GSON.toJson(pluginIndex.all()).getBytes(Charsets.UTF_8), tmpPath.toFile());
+                java.nio.file.Files.move(tmpPath, storePath, StandardCopyOption.REPLACE_EXISTING);
+                java.nio.file.Files.deleteIfExists(changeLogPath);
+
+                numOfChanges = 0;
+                LOGGER.trace("Plugin data been dumped to path: " + storePath);
+            } catch (IOException e) {
+                throw new PluginException(e.getMessage());
+            }
         }
     }
 
-    private void iteratorNext(Collection<Plugin> plugins, PluginIteratorConsumer consumer) {
-        Iterator<Plugin> iterator = plugins.iterator();
-        while(iterator.hasNext()) {
-            Plugin plugin = iterator.next();
-            consumer.consume(iterator, plugin);
+    /**
+     * Append plugin to change log, the store file will be dumped if num of changes over threshold
+     */
+    private void appendChange(Plugin plugin) {
+        synchronized (storeLock) {
+            if (changeLogPath == null) {
+                return;
+            }
+
+            try (BufferedWriter writer = java.nio.file.Files.newBufferedWriter(changeLogPath, Charsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(GSON.toJson(plugin));
+                writer.newLine();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to append plugin change: " + e.getMessage());
+                return;
+            }
+
+            if (++numOfChanges >= COMPACT_THRESHOLD) {
+                dump();
+            }
+        }
+    }
+
+    private void replayChanges() {
+        File file = changeLogPath.toFile();
+        if (!file.exists()) {
+            return;
+        }
+
+        try {
+            for (String line : Files.readLines(file, Charsets.UTF_8)) {
+                try {
+                    Plugin plugin = GSON.fromJson(line, Plugin.class);
+                    if (plugin != null) {
+                        pluginIndex.put(plugin);
+                        numOfChanges++;
+                    }
+                } catch (Throwable e) {
+                    // the last line may be incomplete if process been killed
+                    LOGGER.warn("Unable to replay plugin change: " + e.getMessage());
+                }
+            }
+            LOGGER.trace("Plugin changes been replayed from path: " + file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to load plugin changes: " + e.getMessage());
         }
     }
 
@@ -240,9 +266,4 @@ public class PluginDaoImpl implements PluginDao {
         private List<Plugin> plugins;
     }
 
-    private interface PluginIteratorConsumer {
-
-        void consume(Iterator<Plugin> iterator, Plugin plugin);
-    }
-
 }
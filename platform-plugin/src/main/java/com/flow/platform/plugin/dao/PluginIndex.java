@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.plugin.dao;
+
+import com.flow.platform.plugin.domain.Plugin;
+import com.flow.platform.plugin.domain.PluginStatus;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Plugin catalogue with secondary index by status and label
+ *
+ * @author yang
+ */
+public class PluginIndex {
+
+    private final Map<String, Plugin> plugins = new HashMap<>();
+
+    private final Map<PluginStatus, Set<String>> byStatus = new EnumMap<>(PluginStatus.class);
+
+    private final Map<String, Set<String>> byLabel = new HashMap<>();
+
+    /**
+     * The status and labels when plugin indexed, since plugin instance is changed outside
+     */
+    private final Map<String, PluginStatus> indexedStatus = new HashMap<>();
+
+    private final Map<String, Set<String>> indexedLabels = new HashMap<>();
+
+    /**
+     * Add or re-index plugin
+     */
+    public synchronized void put(Plugin plugin) {
+        String name = plugin.getName();
+        unIndex(name);
+
+        plugins.put(name, plugin);
+
+        // plugin without status only be indexed by labels
+        PluginStatus status = plugin.getStatus();
+        if (status != null) {
+            indexedStatus.put(name, status);
+            byStatus.computeIfAbsent(status, key -> new HashSet<>()).add(name);
+        }
+
+        Set<String> labels = plugin.getLabels() == null ? Collections.emptySet() : new HashSet<>(plugin.getLabels());
+        indexedLabels.put(name, labels);
+        for (String label : labels) {
+            byLabel.computeIfAbsent(label, key -> new HashSet<>()).add(name);
+        }
+    }
+
+    public synchronized Plugin get(String name) {
+        return plugins.get(name);
+    }
+
+    public synchronized Map<String, Plugin> all() {
+        return new HashMap<>(plugins);
+    }
+
+    public synchronized Set<String> labels() {
+        return new HashSet<>(byLabel.keySet());
+    }
+
+    public synchronized int size() {
+        return plugins.size();
+    }
+
+    public synchronized void clear() {
+        plugins.clear();
+        byStatus.clear();
+        byLabel.clear();
+        indexedStatus.clear();
+        indexedLabels.clear();
+    }
+
+    /**
+     * Find plugins by status and labels from index then filter by keyword
+     *
+     * @param status status set or null for all status
+     * @param keyword keyword of name or description, or null for all
+     * @param labels plugin has any of labels, or null for all
+     */
+    public synchronized Set<Plugin> find(Set<PluginStatus> status, String keyword, Set<String> labels) {
+        Set<String> names = null;
+
+        if (!Objects.isNull(status)) {
+            names = union(byStatus, status);
+        }
+
+        if (!Objects.isNull(labels)) {
+            Set<String> withLabels = union(byLabel, labels);
+            if (names == null) {
+                names = withLabels;
+            } else {
+                names.retainAll(withLabels);
+            }
+        }
+
+        Collection<String> candidates = names == null ? plugins.keySet() : names;
+        Set<Plugin> result = new HashSet<>(candidates.size());
+
+        for (String name : candidates) {
+            Plugin plugin = plugins.get(name);
+            if (Objects.isNull(keyword) || isMatch(plugin, keyword)) {
+                result.add(plugin);
+            }
+        }
+
+        return result;
+    }
+
+    private void unIndex(String name) {
+        PluginStatus status = indexedStatus.remove(name);
+        if (status != null) {
+            remove(byStatus, status, name);
+        }
+
+        Set<String> labels = indexedLabels.remove(name);
+        if (labels != null) {
+            for (String label : labels) {
+                remove(byLabel, label, name);
+            }
+        }
+    }
+
+    private static <K> Set<String> union(Map<K, Set<String>> index, Set<K> keys) {
+        Set<String> names = new HashSet<>();
+        for (K key : keys) {
+            Set<String> items = index.get(key);
+            if (items != null) {
+                names.addAll(items);
+            }
+        }
+        return names;
+    }
+
+    private static <K> void remove(Map<K, Set<String>> index, K key, String name) {
+        Set<String> names = index.get(key);
+        if (names == null) {
+            return;
+        }
+
+        names.remove(name);
+        if (names.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static boolean isMatch(Plugin plugin, String keyword) {
+        String description = plugin.getDescription();
+        return plugin.getName().contains(keyword) || (description != null && description.contains(keyword));
+    }
+}
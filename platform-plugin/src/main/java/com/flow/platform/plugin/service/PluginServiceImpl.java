@@ -33,6 +33,7 @@ import com.flow.platform.plugin.exception.PluginException;
 import com.flow.platform.plugin.util.CmdUtil;
 import com.flow.platform.plugin.util.YmlUtil;
 import com.flow.platform.plugin.util.docker.Docker;
+import com.flow.platform.plugin.util.docker.DockerBuildCache;
 import com.flow.platform.util.CommandUtil.Unix;
 import com.flow.platform.util.ExceptionUtil;
 import com.flow.platform.util.Logger;
@@ -51,11 +52,9 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
-import org.apache.commons.io.Charsets;
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.util.Strings;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.revwalk.RevCommit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -103,6 +102,9 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
     @Autowired
     private PluginDao pluginDao;
 
+    @Autowired
+    private DockerBuildCache dockerBuildCache;
+
     @Autowired
     private String pluginSourceUrl;
 
@@ -307,7 +309,7 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
                 if (!checkExistBranchOrNot(localPath)) {
                     LOGGER.traceMarker("InitGitProcessor", "Not Found Branch Create Empty Branch");
                     commitSomething(cachePath);
-                    JGitUtil.push(cachePath, LOCAL_REMOTE, "master");
+                    JGitUtil.push(cachePath, LOCAL_REMOTE, MASTER_BRANCH);
                 }
             } catch (Throwable e) {
                 LOGGER.error("Git Init", e);
@@ -366,7 +368,16 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
         public void exec(Plugin plugin) {
             LOGGER.traceMarker("FetchProcessor", "Fetch tags");
             try {
-                JGitUtil.fetchTags(gitCachePath(plugin), ORIGIN_REMOTE);
+                Path cachePath = gitCachePath(plugin);
+
+                // the tag already fetched with the expected commit
+                String commit = JGitUtil.tagCommit(cachePath, plugin.getTag());
+                if (Objects.equals(commit, plugin.getLatestCommit())) {
+                    LOGGER.traceMarker("FetchProcessor", "Tag %s not changed, skip fetch", plugin.getTag());
+                    return;
+                }
+
+                JGitUtil.fetchTags(cachePath, ORIGIN_REMOTE);
             } catch (Throwable e) {
                 LOGGER.error("Git Fetch", e);
                 throw new PluginException(e.getMessage());
@@ -386,13 +397,10 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
             LOGGER.traceMarker("CompareCommitProcessor", "Compare commit id");
 
             try {
-                // first checkout tag branch
-                JGitUtil.checkout(gitCachePath(plugin), plugin.getTag());
-
-                // compare commit id is equal tag's latest commit id
-                RevCommit commit = JGitUtil.latestCommit(gitCachePath(plugin));
+                // compare commit id of tag from object store without checkout
+                String commit = JGitUtil.tagCommit(gitCachePath(plugin), plugin.getTag());
 
-                if (!Objects.equals(plugin.getLatestCommit(), commit.getId().getName())) {
+                if (!Objects.equals(plugin.getLatestCommit(), commit)) {
                     throw new PluginException("Tag's latest commit id is not user provided");
                 }
             } catch (GitException e) {
@@ -412,20 +420,14 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
             LOGGER.traceMarker("AnalysisYmlProcessor", "Start analysis YML from plugin");
 
             try {
-                // first checkout plugin tag
-                JGitUtil.checkout(gitCachePath(plugin), plugin.getTag());
-
-                Path ymlFilePath = Paths.get(gitCachePath(plugin).toString(), YML_FILE_NAME);
+                // read yml of plugin tag from object store without checkout
+                String body = JGitUtil.readFile(gitCachePath(plugin), plugin.getTag(), YML_FILE_NAME);
 
                 // detect yml
-                if (ymlFilePath.toFile().exists()) {
-                    String body = FileUtils.readFileToString(ymlFilePath.toFile(), Charsets.UTF_8);
+                if (body != null) {
                     plugin.setPluginDetail(YmlUtil.fromYml(body, PluginDetail.class));
                     updatePluginStatus(plugin, INSTALLING);
 
-                    // return to master branch
-                    JGitUtil.checkout(gitCachePath(plugin), MASTER_BRANCH);
-
                     LOGGER.traceMarker("AnalysisYmlProcessor", "Finish analysis YML from plugin");
 
                     return;
@@ -495,12 +497,26 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
             LOGGER.trace("Finish build");
         }
 
-        private void dockerPullAndBuild(Plugin plugin) {
+        private void dockerPullAndBuild(Plugin plugin) throws GitException {
             Path cachePath = gitCachePath(plugin);
+            Path artifactPath = Paths.get(cachePath.toString(), DIST);
+            String treeId = JGitUtil.treeId(cachePath, plugin.getTag());
+
             Docker docker = new Docker();
-            docker.pull(plugin.getPluginDetail().getImage());
-            docker.runBuild(plugin.getPluginDetail().getImage(), plugin.getPluginDetail().getBuild(), cachePath);
-            docker.close();
+            try {
+                boolean isCached = dockerBuildCache.build(docker,
+                    plugin.getPluginDetail().getImage(),
+                    plugin.getPluginDetail().getBuild(),
+                    cachePath,
+                    artifactPath,
+                    treeId);
+
+                if (isCached) {
+                    LOGGER.traceMarker("BuildProcessor", "Build outputs restored from cache");
+                }
+            } finally {
+                docker.close();
+            }
         }
 
 
@@ -527,8 +543,8 @@ public class PluginServiceImpl extends ApplicationEventService implements Plugin
                 // default outputs is dist folder
                 Path artifactPath = Paths.get(cachePath.toString(), DIST);
 
-                // create tmp folder to store build outputs
-                Path tmp = Paths.get(gitCacheWorkspace.toString(), "tmp");
+                // create tmp folder of plugin to store build outputs, plugins are installed in parallel
+                Path tmp = Paths.get(gitCacheWorkspace.toString(), TMP, plugin.getName());
                 if (!tmp.toFile().exists()) {
                     Files.createDirectories(tmp);
                 }
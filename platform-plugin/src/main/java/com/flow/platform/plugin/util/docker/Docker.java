@@ -20,6 +20,7 @@ import com.flow.platform.plugin.exception.PluginException;
 import com.flow.platform.util.Logger;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Bind;
 import com.github.dockerjava.api.model.Frame;
 import com.github.dockerjava.api.model.Volume;
@@ -89,6 +90,19 @@ public class Docker {
         LOGGER.info("Pull Image " + image + " Success");
     }
 
+    /**
+     * Get id of local image which is the digest of image content
+     *
+     * @return image id or null if image not in local
+     */
+    public String imageId(String image) {
+        try {
+            return docker.inspectImageCmd(image).exec().getId();
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
     public void runBuild(String image, String cmd, Path repoPath) {
 
         LOGGER.info("Run Build Start");
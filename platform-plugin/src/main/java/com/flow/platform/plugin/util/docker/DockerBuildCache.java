@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.plugin.util.docker;
+
+import com.flow.platform.plugin.exception.PluginException;
+import com.flow.platform.util.Logger;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.UUID;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Build outputs cache keyed by image id, build cmd and tree id of source,
+ * the docker pull and build will be skipped if outputs of same key been cached
+ *
+ * @author yang
+ */
+public class DockerBuildCache {
+
+    private final static Logger LOGGER = new Logger(DockerBuildCache.class);
+
+    private final Path root;
+
+    public DockerBuildCache(Path root) {
+        this.root = root;
+    }
+
+    public static String key(String imageId, String cmd, String treeId) {
+        return Hashing.sha256()
+            .newHasher()
+            .putString(imageId, Charsets.UTF_8)
+            .putChar('\n')
+            .putString(cmd, Charsets.UTF_8)
+            .putChar('\n')
+            .putString(treeId, Charsets.UTF_8)
+            .hash()
+            .toString();
+    }
+
+    /**
+     * Restore outputs from cache or pull image and run build, the outputs will be cached after build
+     *
+     * @param repoPath source folder to build
+     * @param outputPath outputs folder of build
+     * @param treeId tree id of source, the build will not be cached if null
+     * @return true if outputs restored from cache
+     */
+    public boolean build(Docker docker, String image, String cmd, Path repoPath, Path outputPath, String treeId) {
+        String imageId = docker.imageId(image);
+
+        if (!Objects.isNull(imageId) && !Objects.isNull(treeId)) {
+            String key = key(imageId, cmd, treeId);
+            if (restore(key, outputPath)) {
+                LOGGER.trace("Build outputs restored from cache: " + key);
+                return true;
+            }
+        }
+
+        docker.pull(image);
+        docker.runBuild(image, cmd, repoPath);
+
+        // image id may changed after pull
+        imageId = docker.imageId(image);
+        if (!Objects.isNull(imageId) && !Objects.isNull(treeId)) {
+            save(key(imageId, cmd, treeId), outputPath);
+        }
+
+        return false;
+    }
+
+    /**
+     * Copy cached outputs to target folder
+     *
+     * @return false if key not in cache
+     */
+    public boolean restore(String key, Path target) {
+        File cached = Paths.get(root.toString(), key).toFile();
+        if (!cached.isDirectory()) {
+            return false;
+        }
+
+        try {
+            FileUtils.deleteDirectory(target.toFile());
+            FileUtils.copyDirectory(cached, target.toFile());
+            return true;
+        } catch (IOException e) {
+            throw new PluginException("Unable to restore build outputs from cache", e);
+        }
+    }
+
+    /**
+     * Copy outputs to cache, ignored if outputs is empty or key already cached
+     */
+    public void save(String key, Path source) {
+        File[] files = source.toFile().listFiles();
+        if (Objects.isNull(files) || files.length == 0) {
+            return;
+        }
+
+        Path cached = Paths.get(root.toString(), key);
+        if (cached.toFile().exists()) {
+            return;
+        }
+
+        // copy to tmp folder then move, since the same key may saved in parallel
+        Path tmp = Paths.get(root.toString(), key + "." + UUID.randomUUID() + ".tmp");
+
+        try {
+            FileUtils.copyDirectory(source.toFile(), tmp.toFile());
+            Files.move(tmp, cached, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ignore) {
+        } catch (IOException e) {
+            LOGGER.warn("Unable to save build outputs to cache: " + e.getMessage());
+        } finally {
+            FileUtils.deleteQuietly(tmp.toFile());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.plugin.test.dao;
+
+import com.flow.platform.plugin.dao.PluginDaoImpl;
+import com.flow.platform.plugin.domain.Plugin;
+import com.flow.platform.plugin.domain.PluginStatus;
+import com.google.common.collect.ImmutableSet;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * @author yang
+ */
+public class PluginDaoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path workspace;
+
+    private Path storePath;
+
+    private Path changeLogPath;
+
+    @Before
+    public void init() {
+        workspace = folder.getRoot().toPath();
+        storePath = workspace.resolve("plugin_cache.json");
+        changeLogPath = workspace.resolve("plugin_cache.log");
+    }
+
+    @Test
+    public void should_reload_from_store_file_and_change_log() throws Throwable {
+        // given: plugin dumped to store file
+        PluginDaoImpl pluginDao = createPluginDao();
+        pluginDao.update(createPlugin("maven", PluginStatus.PENDING));
+        pluginDao.dump();
+        Assert.assertTrue(Files.exists(storePath));
+        Assert.assertFalse(Files.exists(changeLogPath));
+
+        // when: plugin changed after dump
+        Plugin maven = pluginDao.get("maven");
+        maven.setStatus(PluginStatus.INSTALLED);
+        pluginDao.update(maven);
+        pluginDao.update(createPlugin("gradle", PluginStatus.PENDING));
+        Assert.assertEquals(2, Files.readAllLines(changeLogPath).size());
+
+        // and: the last line is incomplete since process been killed
+        Files.write(changeLogPath, "{\"name\":\"fir-cli\",\"sta".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+        // then: should load plugins from store file and replay change log
+        PluginDaoImpl reloaded = createPluginDao();
+        Assert.assertEquals(PluginStatus.INSTALLED, reloaded.get("maven").getStatus());
+        Assert.assertEquals(PluginStatus.PENDING, reloaded.get("gradle").getStatus());
+        Assert.assertNull(reloaded.get("fir-cli"));
+        Assert.assertEquals(2, reloaded.list(null, null, null).size());
+    }
+
+    @Test
+    public void should_compact_change_log_to_store_file() throws Throwable {
+        PluginDaoImpl pluginDao = createPluginDao();
+
+        // when: num of changes reach threshold
+        for (int i = 0; i < 200; i++) {
+            pluginDao.update(createPlugin("plugin-" + i, PluginStatus.PENDING));
+        }
+
+        // then: change log should be dumped to store file and reset
+        Assert.assertTrue(Files.exists(storePath));
+        Assert.assertFalse(Files.exists(changeLogPath));
+
+        pluginDao.update(createPlugin("plugin-200", PluginStatus.INSTALLED));
+        Assert.assertEquals(1, Files.readAllLines(changeLogPath).size());
+
+        PluginDaoImpl reloaded = createPluginDao();
+        Assert.assertEquals(201, reloaded.list(null, null, null).size());
+        Assert.assertEquals(1, reloaded.list(ImmutableSet.of(PluginStatus.INSTALLED), null, null).size());
+    }
+
+    private PluginDaoImpl createPluginDao() {
+        PluginDaoImpl pluginDao = new PluginDaoImpl();
+        ReflectionTestUtils.setField(pluginDao, "gitWorkspace", workspace);
+        ReflectionTestUtils.invokeMethod(pluginDao, "init");
+        return pluginDao;
+    }
+
+    private static Plugin createPlugin(String name, PluginStatus status) {
+        return new Plugin(name, "", ImmutableSet.of("java"), "", null, status, "0.1");
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.plugin.test.dao;
+
+import com.flow.platform.plugin.dao.PluginIndex;
+import com.flow.platform.plugin.domain.Plugin;
+import com.flow.platform.plugin.domain.PluginStatus;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class PluginIndexTest {
+
+    private PluginIndex index;
+
+    @Before
+    public void init() {
+        index = new PluginIndex();
+        index.put(new Plugin("fir-cli", "", ImmutableSet.of("fir", "ios"), "", null, PluginStatus.PENDING, "0.1"));
+        index.put(new Plugin("maven", "", ImmutableSet.of("java"), "", null, PluginStatus.INSTALLED, "0.1"));
+        index.put(new Plugin("gradle", "", ImmutableSet.of("java", "android"), "", null, PluginStatus.PENDING, "0.1"));
+    }
+
+    @Test
+    public void should_find_by_status_labels_and_keyword() {
+        Assert.assertEquals(3, index.find(null, null, null).size());
+        Assert.assertEquals(2, index.find(ImmutableSet.of(PluginStatus.PENDING), null, null).size());
+        Assert.assertEquals(2, index.find(null, null, ImmutableSet.of("java")).size());
+
+        Set<Plugin> plugins = index.find(ImmutableSet.of(PluginStatus.PENDING), null, ImmutableSet.of("java"));
+        Assert.assertEquals(1, plugins.size());
+        Assert.assertEquals("gradle", plugins.iterator().next().getName());
+
+        Assert.assertEquals(1, index.find(null, "mav", null).size());
+        Assert.assertEquals(0, index.find(ImmutableSet.of(PluginStatus.INSTALLED), "fir", null).size());
+        Assert.assertEquals(ImmutableSet.of("fir", "ios", "java", "android"), index.labels());
+    }
+
+    @Test
+    public void should_reindex_when_plugin_updated() {
+        // when: update status and labels of plugin in place
+        Plugin plugin = index.get("fir-cli");
+        plugin.setStatus(PluginStatus.INSTALLED);
+        plugin.setLabels(ImmutableSet.of("deploy"));
+        index.put(plugin);
+
+        // then: old index entries should be removed
+        Assert.assertEquals(1, index.find(ImmutableSet.of(PluginStatus.PENDING), null, null).size());
+        Assert.assertEquals(2, index.find(ImmutableSet.of(PluginStatus.INSTALLED), null, null).size());
+        Assert.assertEquals(0, index.find(null, null, ImmutableSet.of("ios")).size());
+        Assert.assertEquals(ImmutableSet.of("deploy", "java", "android"), index.labels());
+    }
+
+    @Test
+    public void should_index_plugin_without_status() {
+        Plugin plugin = new Plugin("ant", "", ImmutableSet.of("java"), "", null, null, "0.1");
+        index.put(plugin);
+
+        Assert.assertEquals(4, index.find(null, null, null).size());
+        Assert.assertEquals(3, index.find(null, null, ImmutableSet.of("java")).size());
+        Assert.assertEquals(0, index.find(ImmutableSet.of(PluginStatus.PENDING), "ant", null).size());
+
+        // when: status been set then re-index
+        plugin.setStatus(PluginStatus.PENDING);
+        index.put(plugin);
+        Assert.assertEquals(1, index.find(ImmutableSet.of(PluginStatus.PENDING), "ant", null).size());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.plugin.test.util;
+
+import com.flow.platform.plugin.util.docker.Docker;
+import com.flow.platform.plugin.util.docker.DockerBuildCache;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author yang
+ */
+public class DockerBuildCacheTest {
+
+    private final static String IMAGE = "flowci/plugin-environment";
+
+    private final static String CMD = "mvn package";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DockerBuildCache cache;
+
+    private Path repoPath;
+
+    private Path outputPath;
+
+    @Before
+    public void init() throws IOException {
+        cache = new DockerBuildCache(folder.newFolder("build-cache").toPath());
+        repoPath = folder.newFolder("plugin").toPath();
+        outputPath = Paths.get(repoPath.toString(), "dist");
+    }
+
+    @Test
+    public void should_skip_pull_and_build_if_outputs_cached() throws IOException {
+        FakeDocker docker = new FakeDocker("sha256:image-1");
+
+        // when: first build
+        Assert.assertFalse(cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-1"));
+        Assert.assertEquals(1, docker.numOfPull);
+        Assert.assertEquals(1, docker.numOfBuild);
+
+        // when: outputs been moved and build again with same source
+        Files.delete(Paths.get(outputPath.toString(), "plugin.jar"));
+        Assert.assertTrue(cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-1"));
+
+        // then: outputs restored without pull and build
+        Assert.assertEquals(1, docker.numOfPull);
+        Assert.assertEquals(1, docker.numOfBuild);
+        Assert.assertEquals("1", new String(Files.readAllBytes(Paths.get(outputPath.toString(), "plugin.jar"))));
+    }
+
+    @Test
+    public void should_build_if_source_or_image_changed() throws IOException {
+        FakeDocker docker = new FakeDocker("sha256:image-1");
+        cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-1");
+
+        // when: build with different tree id
+        Assert.assertFalse(cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-2"));
+        Assert.assertEquals(2, docker.numOfBuild);
+
+        // when: build with different image id
+        docker.imageId = "sha256:image-2";
+        Assert.assertFalse(cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-1"));
+        Assert.assertEquals(3, docker.numOfBuild);
+
+        // when: build without tree id
+        Assert.assertFalse(cache.build(docker, IMAGE, CMD, repoPath, outputPath, null));
+        Assert.assertEquals(4, docker.numOfBuild);
+    }
+
+    @Test
+    public void should_pull_and_build_if_image_not_in_local() throws IOException {
+        FakeDocker docker = new FakeDocker(null);
+
+        Assert.assertFalse(cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-1"));
+        Assert.assertEquals(1, docker.numOfPull);
+
+        // then: image id of pulled image used as cache key
+        Assert.assertTrue(cache.build(docker, IMAGE, CMD, repoPath, outputPath, "tree-1"));
+        Assert.assertEquals(1, docker.numOfPull);
+        Assert.assertEquals(1, docker.numOfBuild);
+    }
+
+    private class FakeDocker extends Docker {
+
+        private String imageId;
+
+        private int numOfPull = 0;
+
+        private int numOfBuild = 0;
+
+        FakeDocker(String imageId) {
+            this.imageId = imageId;
+        }
+
+        @Override
+        public String imageId(String image) {
+            return imageId;
+        }
+
+        @Override
+        public void pull(String image) {
+            numOfPull++;
+            if (imageId == null) {
+                imageId = "sha256:pulled";
+            }
+        }
+
+        @Override
+        public void runBuild(String image, String cmd, Path repoPath) {
+            numOfBuild++;
+            try {
+                Files.createDirectories(outputPath);
+                Files.write(Paths.get(outputPath.toString(), "plugin.jar"), String.valueOf(numOfBuild).getBytes());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
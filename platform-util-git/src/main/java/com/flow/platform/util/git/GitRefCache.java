@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.util.git;
+
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of remote branches and tags by git url, the refs older than refresh time are returned
+ * and reloaded in background, concurrent loads of the same refs are merged into one remote call
+ *
+ * The least recently used refs are evicted over max size, and refs are removed after expire time
+ * so refs of deleted flows are not kept
+ *
+ * @author yang
+ */
+public class GitRefCache {
+
+    public enum RefType {
+        BRANCH,
+        TAG
+    }
+
+    @FunctionalInterface
+    public interface RefLoader {
+
+        List<String> load() throws GitException;
+    }
+
+    private final static class Refs {
+
+        private final List<String> values;
+
+        private final long loadedAt = System.currentTimeMillis();
+
+        Refs(List<String> values) {
+            this.values = values;
+        }
+    }
+
+    public final static int DEFAULT_MAX_SIZE = 1000;
+
+    private final Map<String, Refs> cache;
+
+    private final Map<String, CompletableFuture<Refs>> loading = new ConcurrentHashMap<>();
+
+    private final Executor executor;
+
+    private final long refreshAfter;
+
+    private final long expireAfter;
+
+    /**
+     * @param executor executor to reload refs in background
+     * @param refreshAfter refs will be reloaded in background after millis
+     * @param expireAfter refs will be reloaded before return after millis
+     */
+    public GitRefCache(Executor executor, long refreshAfter, long expireAfter) {
+        this(executor, refreshAfter, expireAfter, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize max num of cached refs
+     */
+    public GitRefCache(Executor executor, long refreshAfter, long expireAfter, long maxSize) {
+        this.executor = executor;
+        this.refreshAfter = refreshAfter;
+        this.expireAfter = expireAfter;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireAfter, TimeUnit.MILLISECONDS)
+            .<String, Refs>build()
+            .asMap();
+    }
+
+    /**
+     * Get refs from cache, or load refs if not cached or expired
+     */
+    public List<String> get(String gitUrl, RefType type, RefLoader loader) throws GitException {
+        String key = key(gitUrl, type);
+        Refs refs = cache.get(key);
+
+        if (refs != null) {
+            long age = System.currentTimeMillis() - refs.loadedAt;
+
+            if (age < expireAfter) {
+                if (age >= refreshAfter) {
+                    load(key, loader, true);
+                }
+                return refs.values;
+            }
+        }
+
+        return await(load(key, loader, false));
+    }
+
+    /**
+     * Load refs from remote and update cache
+     */
+    public List<String> refresh(String gitUrl, RefType type, RefLoader loader) throws GitException {
+        return await(load(key(gitUrl, type), loader, false));
+    }
+
+    /**
+     * Remove cached refs of git url, the loading refs will not be put into cache
+     */
+    public void invalidate(String gitUrl) {
+        for (RefType type : RefType.values()) {
+            String key = key(gitUrl, type);
+            loading.remove(key);
+            cache.remove(key);
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private CompletableFuture<Refs> load(String key, RefLoader loader, boolean async) {
+        CompletableFuture<Refs> future = new CompletableFuture<>();
+        CompletableFuture<Refs> current = loading.putIfAbsent(key, future);
+
+        // refs is loading by other caller
+        if (current != null) {
+            return current;
+        }
+
+        Runnable task = () -> {
+            try {
+                Refs refs = new Refs(loader.load());
+
+                // refs only cached if not invalidated while loading
+                if (loading.remove(key, future)) {
+                    cache.put(key, refs);
+                }
+
+                future.complete(refs);
+            } catch (Throwable e) {
+                loading.remove(key, future);
+                future.completeExceptionally(e);
+            }
+        };
+
+        if (async) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                loading.remove(key, future);
+                future.completeExceptionally(e);
+            }
+        } else {
+            task.run();
+        }
+
+        return future;
+    }
+
+    private static List<String> await(CompletableFuture<Refs> future) throws GitException {
+        try {
+            return future.get().values;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitException("Interrupted while loading refs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GitException) {
+                throw (GitException) e.getCause();
+            }
+            throw new GitException("Fail to load refs", e.getCause());
+        }
+    }
+
+    private static String key(String gitUrl, RefType type) {
+        return type + "@" + gitUrl;
+    }
+}
@@ -22,22 +22,28 @@ import static java.util.stream.StreamSupport.stream;
 import com.flow.platform.util.StringUtil;
 import com.google.common.collect.Lists;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.treewalk.TreeWalk;
 
 /**
  * @author yang
@@ -209,6 +215,67 @@ public class JGitUtil {
         return path;
     }
 
+    /**
+     * Get commit id of tag from local repo without checkout
+     *
+     * @return commit id or null if tag not found
+     */
+    public static String tagCommit(Path path, String tag) throws GitException {
+        try (Git git = Git.open(path.toFile())) {
+            ObjectId commitId = git.getRepository().resolve(Constants.R_TAGS + tag + "^{commit}");
+            return commitId == null ? null : commitId.getName();
+        } catch (IOException e) {
+            throw new GitException("get tag commit error", e);
+        }
+    }
+
+    /**
+     * Get tree id of revision, which is the content hash of source files
+     *
+     * @param revision branch, tag or commit id
+     * @return tree id or null if revision not found
+     */
+    public static String treeId(Path path, String revision) throws GitException {
+        try (Git git = Git.open(path.toFile())) {
+            ObjectId treeId = git.getRepository().resolve(revision + "^{tree}");
+            return treeId == null ? null : treeId.getName();
+        } catch (IOException e) {
+            throw new GitException("get tree id error", e);
+        }
+    }
+
+    /**
+     * Read file content of revision from object store without checkout
+     *
+     * @param revision branch, tag or commit id
+     * @param file file path relative to repo root
+     * @return file content or null if file not found in revision
+     */
+    public static String readFile(Path path, String revision, String file) throws GitException {
+        try (Git git = Git.open(path.toFile())) {
+            Repository repo = git.getRepository();
+            ObjectId commitId = repo.resolve(revision + "^{commit}");
+            if (commitId == null) {
+                throw new GitException("Revision '" + revision + "' not found");
+            }
+
+            try (RevWalk walk = new RevWalk(repo)) {
+                RevCommit commit = walk.parseCommit(commitId);
+
+                try (TreeWalk treeWalk = TreeWalk.forPath(repo, file, commit.getTree())) {
+                    if (treeWalk == null) {
+                        return null;
+                    }
+
+                    byte[] bytes = repo.open(treeWalk.getObjectId(0)).getBytes();
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+        } catch (IOException e) {
+            throw new GitException("read file error", e);
+        }
+    }
+
     public static Path checkout(Path path, String branch) throws GitException {
         try (Git git = Git.open(path.toFile())) {
             git
@@ -245,10 +312,16 @@ public class JGitUtil {
      * @throws GitException
      */
     public static RevCommit latestCommit(Path path) throws GitException {
-        List<RevCommit> commits = listCommits(path);
-        if (commits.isEmpty()) {
-            throw new GitException("Not found latest commit this branch, please confirm");
+        try (Git git = Git.open(path.toFile())) {
+            Iterator<RevCommit> iterator = git.log().setMaxCount(1).call().iterator();
+            if (!iterator.hasNext()) {
+                throw new GitException("Not found latest commit this branch, please confirm");
+            }
+            return iterator.next();
+        } catch (GitException e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new GitException("get commits error", throwable);
         }
-        return commits.get(0);
     }
 }
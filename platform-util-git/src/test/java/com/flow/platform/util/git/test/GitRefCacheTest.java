@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 flow.ci
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flow.platform.util.git.test;
+
+import com.flow.platform.util.git.GitException;
+import com.flow.platform.util.git.GitRefCache;
+import com.flow.platform.util.git.GitRefCache.RefType;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author yang
+ */
+public class GitRefCacheTest {
+
+    private final static String GIT_URL = "git@github.com:flow-ci-plugin/for-testing.git";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private final AtomicInteger numOfLoad = new AtomicInteger(0);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void should_load_once_for_concurrent_callers() throws Throwable {
+        GitRefCache cache = new GitRefCache(executor, 60 * 1000, 60 * 1000);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch loadRelease = new CountDownLatch(1);
+
+        GitRefCache.RefLoader loader = () -> {
+            numOfLoad.incrementAndGet();
+            loadStarted.countDown();
+            awaitQuietly(loadRelease);
+            return ImmutableList.of("master", "develop");
+        };
+
+        // when: two callers get branches at same time
+        Future<List<String>> first = executor.submit(() -> cache.get(GIT_URL, RefType.BRANCH, loader));
+        Assert.assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        Future<List<String>> second = executor.submit(() -> cache.get(GIT_URL, RefType.BRANCH, loader));
+
+        Thread.sleep(100);
+        loadRelease.countDown();
+
+        // then: remote only been loaded once
+        Assert.assertEquals(2, first.get(5, TimeUnit.SECONDS).size());
+        Assert.assertEquals(2, second.get(5, TimeUnit.SECONDS).size());
+        Assert.assertEquals(1, numOfLoad.get());
+
+        // then: load from cache
+        Assert.assertEquals(2, cache.get(GIT_URL, RefType.BRANCH, loader).size());
+        Assert.assertEquals(1, numOfLoad.get());
+    }
+
+    @Test
+    public void should_return_cached_refs_and_reload_in_background() throws Throwable {
+        GitRefCache cache = new GitRefCache(executor, 0, 60 * 1000);
+        CountDownLatch reloaded = new CountDownLatch(2);
+
+        GitRefCache.RefLoader loader = () -> {
+            reloaded.countDown();
+            return ImmutableList.of("v" + numOfLoad.incrementAndGet());
+        };
+
+        Assert.assertEquals("v1", cache.get(GIT_URL, RefType.TAG, loader).get(0));
+
+        // then: cached value returned and reloaded in background
+        Assert.assertEquals("v1", cache.get(GIT_URL, RefType.TAG, loader).get(0));
+        Assert.assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+
+        Thread.sleep(100);
+        Assert.assertEquals("v2", cache.get(GIT_URL, RefType.TAG, () -> ImmutableList.of("ignored")).get(0));
+    }
+
+    @Test
+    public void should_reload_after_invalidated() throws Throwable {
+        GitRefCache cache = new GitRefCache(executor, 60 * 1000, 60 * 1000);
+        GitRefCache.RefLoader loader = () -> ImmutableList.of("v" + numOfLoad.incrementAndGet());
+
+        cache.get(GIT_URL, RefType.TAG, loader);
+        cache.get(GIT_URL, RefType.BRANCH, loader);
+        Assert.assertEquals(2, cache.size());
+
+        cache.invalidate(GIT_URL);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals("v3", cache.get(GIT_URL, RefType.TAG, loader).get(0));
+    }
+
+    @Test
+    public void should_evict_refs_over_max_size() throws Throwable {
+        GitRefCache cache = new GitRefCache(executor, 60 * 1000, 60 * 1000, 2);
+        GitRefCache.RefLoader loader = () -> ImmutableList.of("v" + numOfLoad.incrementAndGet());
+
+        for (int i = 0; i < 10; i++) {
+            cache.get(GIT_URL + i, RefType.BRANCH, loader);
+        }
+
+        Assert.assertTrue(cache.size() <= 2);
+        Assert.assertEquals(10, numOfLoad.get());
+    }
+
+    @Test(expected = GitException.class)
+    public void should_throw_git_exception_if_load_failure() throws Throwable {
+        GitRefCache cache = new GitRefCache(executor, 60 * 1000, 60 * 1000);
+        cache.get(GIT_URL, RefType.BRANCH, () -> {
+            throw new GitException("Fail to list branches from remote repo");
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ignore) {
+        }
+    }
+}
@@ -18,7 +18,9 @@ package com.flow.platform.util.git.test;
 
 import com.flow.platform.util.git.JGitUtil;
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.lib.Repository;
@@ -152,4 +154,40 @@ public class JGitUtilTest {
             JGitUtil.latestCommit(folder.toPath()).getId().getName());
 
     }
+
+    @Test
+    public void should_read_tag_commit_and_file_without_checkout() throws Throwable {
+        // given: local repo with tag v1.0 and new commit on master
+        Path repoPath = folder.newFolder("local").toPath();
+        JGitUtil.init(repoPath, false);
+
+        RevCommit tagCommit;
+        try (Git git = Git.open(repoPath.toFile())) {
+            Files.write(Paths.get(repoPath.toString(), ".flow-plugin.yml"), "name: v1.0".getBytes());
+            git.add().addFilepattern(".").call();
+            tagCommit = git.commit().setMessage("v1.0").call();
+            git.tag().setName("v1.0").setMessage("v1.0").call();
+
+            Files.write(Paths.get(repoPath.toString(), ".flow-plugin.yml"), "name: master".getBytes());
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("master").call();
+        }
+
+        // then: annotated tag should be resolved to commit
+        Assert.assertEquals(tagCommit.getId().getName(), JGitUtil.tagCommit(repoPath, "v1.0"));
+        Assert.assertNull(JGitUtil.tagCommit(repoPath, "v2.0"));
+
+        // then: read file from tag and master without checkout
+        Assert.assertEquals("name: v1.0", JGitUtil.readFile(repoPath, "v1.0", ".flow-plugin.yml"));
+        Assert.assertEquals("name: master", JGitUtil.readFile(repoPath, "master", ".flow-plugin.yml"));
+        Assert.assertNull(JGitUtil.readFile(repoPath, "v1.0", "not-exist.yml"));
+
+        // then: latest commit is master
+        Assert.assertEquals("master", JGitUtil.latestCommit(repoPath).getShortMessage());
+
+        // then: tree id of tag is the tree of tag commit
+        Assert.assertEquals(tagCommit.getTree().getId().getName(), JGitUtil.treeId(repoPath, "v1.0"));
+        Assert.assertNotEquals(JGitUtil.treeId(repoPath, "v1.0"), JGitUtil.treeId(repoPath, "master"));
+        Assert.assertNull(JGitUtil.treeId(repoPath, "v2.0"));
+    }
 }